@@ -3,6 +3,8 @@ module org.quiltmc.installer {
     requires org.jetbrains.annotations;
     requires org.jspecify;
     requires com.google.gson;
+    requires jdk.httpserver; // installer daemon
+    requires jdk.jfr; // installer events in flight recordings
 
     requires org.bouncycastle.provider;
     requires java.logging; // required by bouncycastle
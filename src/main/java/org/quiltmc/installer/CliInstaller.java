@@ -16,10 +16,27 @@
 
 package org.quiltmc.installer;
 
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
 import org.bouncycastle.jce.provider.BouncyCastleProvider;
 import org.jetbrains.annotations.Nullable;
 import org.quiltmc.installer.action.Action;
-
+import org.quiltmc.installer.action.ActionFailedException;
+import org.quiltmc.installer.action.InstallClients;
+import org.quiltmc.installer.action.InstallServer;
+import org.quiltmc.installer.action.InstallServers;
+import org.quiltmc.installer.action.InstallStatus;
+import org.quiltmc.installer.util.InstallerCache;
+import org.quiltmc.installer.util.Trace;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.security.Security;
 import java.util.*;
 
@@ -34,6 +51,15 @@ public final class CliInstaller {
 
 	public static final String INSTALLER_VERSION = Objects.requireNonNullElse(CliInstaller.class.getPackage().getImplementationVersion(), "UNKNOWN");
 
+	/**
+	 * Client install options which do not take a value.
+	 */
+	private static final Set<String> CLIENT_FLAGS = Set.of("--no-profile", "--reproducible", "--prefetch", "--prefetch-assets");
+	/**
+	 * Server install options which do not take a value.
+	 */
+	private static final Set<String> SERVER_FLAGS = Set.of("--create-scripts", "--download-server", "--create-cds-archive", "--merge-libraries", "--extract-server-jar", "--warm-up", "--reproducible", "--split-layout", "--slots", "--no-activate");
+
 	public static void run(String[] args) {
 		// Assemble the array of args back into a single string
 		StringBuilder builder = new StringBuilder();
@@ -44,26 +70,113 @@ public final class CliInstaller {
 			builder.append(args[i]);
 		}
 
-		Action<?> action = parse(builder.toString());
+		Queue<String> split = splitQuoted(builder.toString());
+		boolean ndjson = false;
+		boolean invalidOutput = false;
+		@Nullable
+		Path trace = null;
+
+		// The output format, the trace and the metadata cache apply to any command, so they may be given anywhere
+		for (Iterator<String> iterator = split.iterator(); iterator.hasNext(); ) {
+			String arg = iterator.next();
+
+			if (arg.startsWith("--output=")) {
+				iterator.remove();
+
+				switch (arg.substring(9)) {
+				case "ndjson":
+					ndjson = true;
+					break;
+				case "text":
+					ndjson = false;
+					break;
+				default:
+					System.err.printf("Invalid output format \"%s\", expected ndjson or text%n", arg.substring(9));
+					invalidOutput = true;
+				}
+			} else if (arg.startsWith("--trace=")) {
+				iterator.remove();
+				trace = Paths.get(arg.substring(8));
+			} else if (arg.equals("--cache-metadata")) {
+				iterator.remove();
+				InstallerCache.enableMetadata();
+			}
+		}
+
+		// A typo must not silently give a parser free-form text
+		Action<?> action = invalidOutput ? Action.DISPLAY_HELP : parse(split);
+
+		if (trace != null) {
+			Trace.start();
+		}
+
+		try {
+			try {
+				run(action, ndjson);
+			} finally {
+				if (trace != null) {
+					finishTrace(trace);
+				}
+			}
+		} catch (RuntimeException e) {
+			ActionFailedException failure = ActionFailedException.find(e);
 
-		action.run(msg -> {
-			if (action != Action.DISPLAY_HELP) {
-				// TODO: Do we want to add some sort of hanging carriage percentage tracker?
-				// TODO: Implement CLI tracker
+			if (failure == null) {
+				throw e;
 			}
 
-			// Help shouldn't need a progress bar
-		});
+			// The action has already reported why it failed
+			System.exit(failure.exitCode());
+		}
+	}
+
+	private static void run(Action<?> action, boolean ndjson) {
+		if (ndjson) {
+			// Only the status updates go to stdout, so it can be piped into a parser
+			PrintStream out = System.out;
+			System.setOut(System.err);
+
+			action.run(msg -> {
+				if (msg instanceof InstallStatus status) {
+					// Downloads report from several threads at once
+					synchronized (out) {
+						out.println(status.toJson());
+						out.flush();
+					}
+				}
+			});
+		} else {
+			action.run(msg -> {
+				if (action != Action.DISPLAY_HELP) {
+					// TODO: Do we want to add some sort of hanging carriage percentage tracker?
+					// TODO: Implement CLI tracker
+				}
+
+				// Help shouldn't need a progress bar
+			});
+		}
+	}
+
+	private static void finishTrace(Path trace) {
+		try {
+			Trace.finish(trace);
+			System.err.println("Wrote trace to " + trace.toAbsolutePath());
+		} catch (IOException e) {
+			System.err.println("Failed to write trace to " + trace);
+			e.printStackTrace();
+		}
 	}
 
 	/**
-	 * Parse the inputted arguments and return the appropriate action that should be run.
+	 * Parse the already split arguments and return the appropriate action that should be run.
 	 *
-	 * @param input the input
+	 * @param split the arguments, which are consumed
 	 * @return the action, defaulting to {@link Action#DISPLAY_HELP} if the arguments were improperly parsed.
 	 */
-	private static Action<?> parse(String input) {
-		Queue<String> split = splitQuoted(input);
+	static Action<?> parse(Queue<String> split) {
+		if (split.isEmpty()) {
+			return Action.DISPLAY_HELP;
+		}
 
 		String arg = split.remove();
 
@@ -104,7 +217,7 @@ public final class CliInstaller {
 			return !hasError ? Action.listVersions(minecraftSnapshots, loaderBetas) : Action.DISPLAY_HELP;
 		case "install":
 			if (split.size() == 0) {
-				System.err.println("Side is required: \"client\" or \"server\"");
+				System.err.println("Side is required: \"client\", \"clients\", \"server\" or \"servers\"");
 				return Action.DISPLAY_HELP;
 			}
 
@@ -140,55 +253,16 @@ public final class CliInstaller {
 				}
 
 				// There are some additional options
-				Map<String, String> options = new LinkedHashMap<>();
-
-				while (split.peek() != null) {
-					String option = split.remove();
-
-					// Just two -- is not enough
-					if (!option.startsWith("--")) {
-						System.err.printf("Invalid option %s%n", option);
-						return Action.DISPLAY_HELP;
-					}
+				Map<String, String> options = parseInstallOptions(split, CLIENT_FLAGS);
 
-					if (option.equals("--no-profile")) {
-						if (options.containsKey("--no-profile")) {
-							System.err.println("Encountered duplicate option \"--no-profile\", This shouldn't affect anything");
-						}
-
-						options.put("--no-profile", null);
-					// Common option
-					} else if (option.startsWith("--install-dir")) {
-						if (options.containsKey("--install-dir")) {
-							System.err.println("Encountered duplicate option \"--install-dir\"");
-							return Action.DISPLAY_HELP;
-						}
-
-						if (option.indexOf('=') == -1) {
-							System.err.println("Option \"--install-dir\" must specify a value");
-							return Action.DISPLAY_HELP;
-						}
-
-						if (!option.startsWith("--install-dir=")) {
-							System.err.println("Option \"--install-dir\" must have a equals sign (=) right after the option name to get the value");
-							return Action.DISPLAY_HELP;
-						}
-
-						String value = unqoute(option.substring(14));
-
-						if (value == null) {
-							System.err.println("Option \"--install-dir\" must have value quoted at start and end of value");
-							return Action.DISPLAY_HELP;
-						}
-
-						options.put("--install-dir", value);
-					} else {
-						System.err.printf("Invalid option %s%n", option);
-						return Action.DISPLAY_HELP;
-					}
+				if (options == null) {
+					return Action.DISPLAY_HELP;
 				}
 
-				return Action.installClient(minecraftVersion, loaderVersion, options.get("--install-dir"), !options.containsKey("--no-profile"));
+				return Action.installClient(minecraftVersion, loaderVersion, options.get("--install-dir"), !options.containsKey("--no-profile"))
+						.reproducible(options.containsKey("--reproducible"))
+						.prefetch(options.containsKey("--prefetch"))
+						.prefetchAssets(options.containsKey("--prefetch-assets"));
 			}
 			case "server": {
 				if (split.size() == 0) {
@@ -219,72 +293,297 @@ public final class CliInstaller {
 				}
 
 				// There are some additional options
-				Map<String, String> options = new LinkedHashMap<>();
+				Map<String, String> options = parseInstallOptions(split, SERVER_FLAGS);
+
+				if (options == null) {
+					return Action.DISPLAY_HELP;
+				}
+
+				if (options.containsKey("--slots") && options.containsKey("--split-layout")) {
+					System.err.println("Options \"--slots\" and \"--split-layout\" cannot be used together");
+					return Action.DISPLAY_HELP;
+				}
+
+				if (options.containsKey("--no-activate") && !options.containsKey("--slots")) {
+					System.err.println("Option \"--no-activate\" requires \"--slots\"");
+					return Action.DISPLAY_HELP;
+				}
+
+				return Action.installServer(minecraftVersion, loaderVersion, options.get("--install-dir"), options.containsKey("--create-scripts"), options.containsKey("--download-server"))
+						.createSharedArchive(options.containsKey("--create-cds-archive"))
+						.mergeLibraries(options.containsKey("--merge-libraries"))
+						.extractBundler(options.containsKey("--extract-server-jar"))
+						.warmUp(options.containsKey("--warm-up"))
+						.reproducible(options.containsKey("--reproducible"))
+						.layout(options.containsKey("--split-layout") ? ServerLayout.SPLIT : ServerLayout.FLAT)
+						.slots(options.containsKey("--slots"))
+						.activateSlot(!options.containsKey("--no-activate"));
+			}
+			case "clients": {
+				// Each version is given as <minecraft-version>[:<loader-version>]
+				Set<InstallClients.Target> targets = new LinkedHashSet<>();
+
+				while (split.peek() != null && !split.peek().startsWith("-")) {
+					String target = split.remove();
+					int separator = target.indexOf(':');
+					InstallClients.Target parsed = separator < 0
+							? new InstallClients.Target(target, null)
+							: new InstallClients.Target(target.substring(0, separator), target.substring(separator + 1));
+
+					if (!targets.add(parsed)) {
+						System.err.printf("Encountered duplicate version \"%s\", This shouldn't affect anything%n", target);
+					}
+				}
+
+				if (targets.isEmpty()) {
+					System.err.println("At least one Minecraft version is required");
+					return Action.DISPLAY_HELP;
+				}
+
+				Map<String, String> options = parseInstallOptions(split, CLIENT_FLAGS);
+
+				if (options == null) {
+					return Action.DISPLAY_HELP;
+				}
+
+				return Action.installClients(new ArrayList<>(targets), options.get("--install-dir"), !options.containsKey("--no-profile"))
+						.reproducible(options.containsKey("--reproducible"))
+						.prefetch(options.containsKey("--prefetch"))
+						.prefetchAssets(options.containsKey("--prefetch-assets"));
+			}
+			case "servers": {
+				@Nullable
+				String plan = null;
 
 				while (split.peek() != null) {
 					String option = split.remove();
 
-					// Just two -- is not enough
-					if (!option.startsWith("--")) {
+					if (option.equals("--plan") && split.peek() != null) {
+						plan = unqoute(split.remove());
+					} else if (option.startsWith("--plan=")) {
+						plan = unqoute(option.substring(7));
+					} else {
 						System.err.printf("Invalid option %s%n", option);
+						return Action.DISPLAY_HELP;
 					}
+				}
+
+				if (plan == null) {
+					System.err.println("Option \"--plan\" is required, and must have a quoted or unquoted value");
+					return Action.DISPLAY_HELP;
+				}
+
+				return parsePlan(Paths.get(plan));
+			}
+			default:
+				System.err.printf("Invalid side \"%s\", expected \"client\", \"clients\", \"server\" or \"servers\"%n", arg);
+				return Action.DISPLAY_HELP;
+			}
 
-					if (option.equals("--create-scripts")) {
-						if (options.containsKey("--create-scripts")) {
-							System.err.println("Encountered duplicate option \"--create-scripts\", This shouldn't affect anything");
-						}
-
-						options.put("--create-scripts", null);
-					} else if (option.equals("--download-server")) {
-						if (options.containsKey("--download-server")) {
-							System.err.println("Encountered duplicate option \"--download-server\", This shouldn't affect anything");
-						}
-
-						options.put("--download-server", null);
-					// Common option
-					} else if (option.startsWith("--install-dir")) {
-						if (options.containsKey("--install-dir")) {
-							System.err.println("Encountered duplicate option \"--install-dir\"");
-							return Action.DISPLAY_HELP;
-						}
-
-						if (option.indexOf('=') == -1) {
-							System.err.println("Option \"--install-dir\" must specify a value");
-							return Action.DISPLAY_HELP;
-						}
-
-						if (!option.startsWith("--install-dir=")) {
-							System.err.println("Option \"--install-dir\" must have a equals sign (=) right after the option name to get the value");
-							return Action.DISPLAY_HELP;
-						}
-
-						String value = unqoute(option.substring(14));
-
-						if (value == null) {
-							System.err.println("Option \"--install-dir\" must have value quoted at start and end of value");
-							return Action.DISPLAY_HELP;
-						}
-
-						options.put("--install-dir", value);
+		case "activate": {
+			if (split.peek() == null || split.peek().startsWith("--")) {
+				System.err.println("Expected the name of the slot to activate");
+				return Action.DISPLAY_HELP;
+			}
+
+			String slot = split.remove();
+
+			// Slot names never contain separators, so this can't point outside of the slots directory
+			if (!slot.matches("[A-Za-z0-9_+-][A-Za-z0-9._+-]*") || slot.equals(ServerSlots.CURRENT)) {
+				System.err.printf("Invalid slot name \"%s\"%n", slot);
+				return Action.DISPLAY_HELP;
+			}
+
+			// Takes the install dir like the install commands do, and no flags
+			Map<String, String> options = parseInstallOptions(split, Set.of());
+
+			if (options == null) {
+				return Action.DISPLAY_HELP;
+			}
+
+			return Action.activateSlot(slot, options.get("--install-dir"));
+		}
+		case "daemon": {
+			int port = 0;
+			int maxJobs = InstallerDaemon.DEFAULT_MAX_JOBS;
+
+			while (split.peek() != null) {
+				String option = split.remove();
+
+				try {
+					if (option.startsWith("--port=")) {
+						port = Integer.parseInt(option.substring(7));
+					} else if (option.startsWith("--max-jobs=")) {
+						maxJobs = Integer.parseInt(option.substring(11));
 					} else {
 						System.err.printf("Invalid option %s%n", option);
 						return Action.DISPLAY_HELP;
 					}
+				} catch (NumberFormatException e) {
+					System.err.printf("Option \"%s\" must have a number as its value%n", option.substring(0, option.indexOf('=')));
+					return Action.DISPLAY_HELP;
 				}
-
-				return Action.installServer(minecraftVersion, loaderVersion, options.get("--install-dir"), options.containsKey("--create-scripts"), options.containsKey("--download-server"));
 			}
-			default:
-				System.err.printf("Invalid side \"%s\", expected \"client\" or \"server\"%n", arg);
+
+			if (port < 0 || port > 65535 || maxJobs < 1) {
+				System.err.println("Options \"--port\" and \"--max-jobs\" are out of range");
 				return Action.DISPLAY_HELP;
 			}
 
+			return Action.daemon(port, maxJobs);
+		}
 		default:
 			System.err.printf("Invalid argument \"%s\"%n", arg);
 			return Action.DISPLAY_HELP;
 		}
 	}
 
+	/**
+	 * Reads a plan for installing several servers.
+	 *
+	 * <p>The plan is a json object with a {@code servers} array. Each server has a {@code dir}, relative to the plan,
+	 * a {@code minecraftVersion}, and optionally a {@code loaderVersion} and {@code options}, which are the options of
+	 * {@code install server}. The {@code options} of the plan apply to every server, and {@code concurrency} limits
+	 * how many downloads and servers are worked on at the same time.
+	 *
+	 * @param planPath the plan file
+	 * @return the action, or {@link Action#DISPLAY_HELP} if the plan is invalid
+	 */
+	private static Action<?> parsePlan(Path planPath) {
+		JsonObject plan;
+
+		try (var reader = Files.newBufferedReader(planPath)) {
+			plan = JsonParser.parseReader(reader).getAsJsonObject();
+		} catch (IOException | JsonParseException | IllegalStateException e) {
+			System.err.printf("Could not read plan %s: %s%n", planPath, e.getMessage());
+			return Action.DISPLAY_HELP;
+		}
+
+		List<InstallServer> servers = new ArrayList<>();
+		int concurrency;
+
+		try {
+			Path planDir = planPath.toAbsolutePath().getParent();
+			List<String> commonOptions = plan.has("options") ? stringList(plan.getAsJsonArray("options")) : List.of();
+			concurrency = plan.has("concurrency") ? plan.get("concurrency").getAsInt() : InstallServers.DEFAULT_CONCURRENCY;
+			Set<Path> dirs = new HashSet<>();
+
+			if (concurrency < 1 || !plan.has("servers") || plan.getAsJsonArray("servers").isEmpty()) {
+				System.err.println("A plan must have at least one server, and a concurrency of at least 1");
+				return Action.DISPLAY_HELP;
+			}
+
+			for (JsonElement element : plan.getAsJsonArray("servers")) {
+				JsonObject server = element.getAsJsonObject();
+
+				if (!server.has("dir") || !server.has("minecraftVersion")) {
+					System.err.println("Every server of a plan must have a \"dir\" and a \"minecraftVersion\"");
+					return Action.DISPLAY_HELP;
+				}
+
+				Path dir = planDir.resolve(server.get("dir").getAsString()).normalize();
+
+				if (!dirs.add(dir)) {
+					System.err.printf("Plan installs more than one server at %s%n", dir);
+					return Action.DISPLAY_HELP;
+				}
+
+				// Parsed like an install server command, so a plan accepts the same options
+				Queue<String> args = new LinkedList<>(List.of("install", "server", server.get("minecraftVersion").getAsString()));
+
+				if (server.has("loaderVersion")) {
+					args.add(server.get("loaderVersion").getAsString());
+				}
+
+				args.add("--install-dir=" + dir);
+				args.addAll(commonOptions);
+
+				if (server.has("options")) {
+					args.addAll(stringList(server.getAsJsonArray("options")));
+				}
+
+				if (!(parse(args) instanceof InstallServer action)) {
+					System.err.printf("Invalid server at %s in plan%n", dir);
+					return Action.DISPLAY_HELP;
+				}
+
+				servers.add(action);
+			}
+		} catch (RuntimeException e) {
+			// Values of the wrong type
+			System.err.printf("Invalid plan %s: %s%n", planPath, e);
+			return Action.DISPLAY_HELP;
+		}
+
+		return Action.installServers(servers, concurrency);
+	}
+
+	private static List<String> stringList(JsonArray array) {
+		List<String> strings = new ArrayList<>(array.size());
+		array.forEach(element -> strings.add(element.getAsString()));
+		return strings;
+	}
+
+	/**
+	 * Parses the options of an install command, after its positional arguments.
+	 *
+	 * @param split the remaining arguments
+	 * @param flags the options which do not take a value
+	 * @return the options, or null if they were invalid
+	 */
+	@Nullable
+	private static Map<String, String> parseInstallOptions(Queue<String> split, Set<String> flags) {
+		Map<String, String> options = new LinkedHashMap<>();
+
+		while (split.peek() != null) {
+			String option = split.remove();
+
+			// Just two -- is not enough
+			if (!option.startsWith("--")) {
+				System.err.printf("Invalid option %s%n", option);
+				return null;
+			}
+
+			if (flags.contains(option)) {
+				if (options.containsKey(option)) {
+					System.err.printf("Encountered duplicate option \"%s\", This shouldn't affect anything%n", option);
+				}
+
+				options.put(option, null);
+			// Common option
+			} else if (option.startsWith("--install-dir")) {
+				if (options.containsKey("--install-dir")) {
+					System.err.println("Encountered duplicate option \"--install-dir\"");
+					return null;
+				}
+
+				if (option.indexOf('=') == -1) {
+					System.err.println("Option \"--install-dir\" must specify a value");
+					return null;
+				}
+
+				if (!option.startsWith("--install-dir=")) {
+					System.err.println("Option \"--install-dir\" must have a equals sign (=) right after the option name to get the value");
+					return null;
+				}
+
+				String value = unqoute(option.substring(14));
+
+				if (value == null) {
+					System.err.println("Option \"--install-dir\" must have value quoted at start and end of value");
+					return null;
+				}
+
+				options.put("--install-dir", value);
+			} else {
+				System.err.printf("Invalid option %s%n", option);
+				return null;
+			}
+		}
+
+		return options;
+	}
+
 	/**
 	 * Takes a string and splits it at spaces while leaving quoted segements unsplit.
 	 *
@@ -0,0 +1,359 @@
+/*
+ * Copyright 2026 QuiltMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.quiltmc.installer;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import org.jetbrains.annotations.Nullable;
+import org.quiltmc.installer.util.Util;
+import org.quiltmc.installer.util.mojang.MinecraftMeta;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.regex.Pattern;
+
+/**
+ * Downloads everything the vanilla launcher would download when a Quilt profile is first launched: the libraries of
+ * the profile, the version json, client jar and libraries of the game version it inherits from, and the assets of
+ * that version.
+ *
+ * <p>Only the libraries and natives for the current operating system are downloaded, following the same rules as the
+ * launcher. Files which already exist with the expected hash are skipped, so the launcher has nothing left to do.
+ */
+public final class ClientPrefetch {
+	private static final String OS_NAME = osName();
+	private static final String ASSETS_URL = "https://resources.download.minecraft.net/";
+
+	/**
+	 * Downloads the files of a profile in parallel.
+	 *
+	 * @param gameDir the launcher directory
+	 * @param profileJson the launch json of the profile
+	 * @param version the game version the profile inherits from
+	 * @param libraries whether to download the libraries and the client jar
+	 * @param assets whether to download the asset index and the asset objects
+	 * @return a future of the number of files downloaded and already present
+	 */
+	public static CompletableFuture<Result> prefetch(Path gameDir, JsonObject profileJson, MinecraftMeta.MinecraftVersion version, boolean libraries, boolean assets) {
+		return prefetch(gameDir, profileJson, version, libraries, assets, Connections.DownloadListener.NONE);
+	}
+
+	/**
+	 * Downloads the files of a profile in parallel, reporting the progress of every download.
+	 *
+	 * @param gameDir the launcher directory
+	 * @param profileJson the launch json of the profile
+	 * @param version the game version the profile inherits from
+	 * @param libraries whether to download the libraries and the client jar
+	 * @param assets whether to download the asset index and the asset objects
+	 * @param listener the listener to report the downloads to
+	 * @return a future of the number of files downloaded and already present
+	 */
+	public static CompletableFuture<Result> prefetch(Path gameDir, JsonObject profileJson, MinecraftMeta.MinecraftVersion version, boolean libraries, boolean assets, Connections.DownloadListener listener) {
+		Path versionDir = gameDir.resolve("versions").resolve(version.id());
+		Path versionJsonPath = versionDir.resolve(version.id() + ".json");
+
+		// The profile's own libraries don't need to wait for the version json
+		CompletableFuture<Result> profileFuture = libraries ? downloadAll(libraryDownloads(gameDir, profileJson).values(), listener) : CompletableFuture.completedFuture(Result.NONE);
+
+		CompletableFuture<Boolean> versionJsonDownload = Connections.download(version.url(), versionJsonPath, version.sha1(), listener);
+		CompletableFuture<JsonObject> versionJsonFuture = versionJsonDownload.thenApply(downloaded -> {
+			try (Reader reader = Files.newBufferedReader(versionJsonPath, StandardCharsets.UTF_8)) {
+				return Util.GSON.fromJson(reader, JsonObject.class);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		});
+
+		CompletableFuture<Result> versionFuture = versionJsonDownload.thenApply(downloaded -> downloaded ? new Result(1, 0) : new Result(0, 1));
+
+		if (libraries) {
+			versionFuture = versionFuture.thenCombine(versionJsonFuture.thenCompose(versionJson -> {
+				Map<Path, Download> downloads = libraryDownloads(gameDir, versionJson);
+				JsonObject client = versionJson.getAsJsonObject("downloads").getAsJsonObject("client");
+				Path clientJar = versionDir.resolve(version.id() + ".jar");
+				downloads.put(clientJar, new Download(URI.create(client.get("url").getAsString()), clientJar, string(client, "sha1")));
+
+				return downloadAll(downloads.values(), listener);
+			}), Result::add);
+		}
+
+		if (assets) {
+			versionFuture = versionFuture.thenCombine(versionJsonFuture.thenCompose(versionJson -> prefetchAssets(gameDir, versionJson, listener)), Result::add);
+		}
+
+		return profileFuture.thenCombine(versionFuture, Result::add);
+	}
+
+	/**
+	 * Downloads the asset index of a version and every asset object it lists.
+	 *
+	 * <p>Objects are stored by their hash, so an object used under several names or by several versions is only
+	 * downloaded once.
+	 */
+	private static CompletableFuture<Result> prefetchAssets(Path gameDir, JsonObject versionJson, Connections.DownloadListener listener) {
+		JsonObject assetIndex = versionJson.getAsJsonObject("assetIndex");
+
+		if (assetIndex == null) {
+			return CompletableFuture.completedFuture(Result.NONE);
+		}
+
+		Path assetsDir = gameDir.resolve("assets");
+		Path indexPath = assetsDir.resolve("indexes").resolve(assetIndex.get("id").getAsString() + ".json");
+
+		return Connections.download(URI.create(assetIndex.get("url").getAsString()), indexPath, string(assetIndex, "sha1"), listener).thenCompose(downloaded -> {
+			JsonObject index;
+
+			try (Reader reader = Files.newBufferedReader(indexPath, StandardCharsets.UTF_8)) {
+				index = Util.GSON.fromJson(reader, JsonObject.class);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+
+			Map<String, Download> objects = new LinkedHashMap<>();
+
+			for (Map.Entry<String, JsonElement> entry : index.getAsJsonObject("objects").entrySet()) {
+				String hash = entry.getValue().getAsJsonObject().get("hash").getAsString();
+				String path = hash.substring(0, 2) + "/" + hash;
+
+				objects.computeIfAbsent(hash, h -> new Download(URI.create(ASSETS_URL + path), assetsDir.resolve("objects").resolve(path), h));
+			}
+
+			return downloadAll(objects.values(), listener).thenApply(result -> result.add(downloaded ? new Result(1, 0) : new Result(0, 1)));
+		});
+	}
+
+	private static Map<Path, Download> libraryDownloads(Path gameDir, JsonObject json) {
+		Path librariesDir = gameDir.resolve("libraries");
+		// Libraries are listed once per platform they are used on, but only need to be downloaded once
+		Map<Path, Download> downloads = new LinkedHashMap<>();
+		JsonArray libraries = json.getAsJsonArray("libraries");
+
+		if (libraries == null) {
+			return downloads;
+		}
+
+		for (JsonElement element : libraries) {
+			JsonObject library = element.getAsJsonObject();
+
+			if (!isAllowed(library.getAsJsonArray("rules"))) {
+				continue;
+			}
+
+			JsonObject libraryDownloads = library.getAsJsonObject("downloads");
+
+			if (libraryDownloads == null) {
+				// A maven library, from the profile json
+				String name = library.get("name").getAsString();
+				String path = mavenPath(name);
+				String url = library.has("url") ? library.get("url").getAsString() : "https://libraries.minecraft.net/";
+
+				if (!url.endsWith("/")) {
+					url += "/";
+				}
+
+				Path target = librariesDir.resolve(path);
+				downloads.put(target, new Download(URI.create(url + path), target, string(library, "sha1")));
+				continue;
+			}
+
+			JsonObject artifact = libraryDownloads.getAsJsonObject("artifact");
+
+			if (artifact != null) {
+				addArtifact(librariesDir, artifact, downloads);
+			}
+
+			// Versions before 1.19 put natives in a classifier of the library
+			JsonObject natives = library.getAsJsonObject("natives");
+			JsonObject classifiers = libraryDownloads.getAsJsonObject("classifiers");
+
+			if (natives != null && classifiers != null && natives.has(OS_NAME)) {
+				String classifier = natives.get(OS_NAME).getAsString().replace("${arch}", is64Bit() ? "64" : "32");
+				JsonObject nativeArtifact = classifiers.getAsJsonObject(classifier);
+
+				if (nativeArtifact != null) {
+					addArtifact(librariesDir, nativeArtifact, downloads);
+				}
+			}
+		}
+
+		return downloads;
+	}
+
+	private static void addArtifact(Path librariesDir, JsonObject artifact, Map<Path, Download> downloads) {
+		String url = string(artifact, "url");
+
+		// Libraries without a url are provided by the launcher
+		if (url == null || url.isEmpty()) {
+			return;
+		}
+
+		Path target = librariesDir.resolve(artifact.get("path").getAsString());
+		downloads.put(target, new Download(URI.create(url), target, string(artifact, "sha1")));
+	}
+
+	private static CompletableFuture<Result> downloadAll(Collection<Download> downloads, Connections.DownloadListener listener) {
+		List<CompletableFuture<Boolean>> futures = new ArrayList<>(downloads.size());
+
+		for (Download download : downloads) {
+			futures.add(download.start(listener));
+		}
+
+		return CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).thenApply(_v -> {
+			int downloaded = (int) futures.stream().filter(CompletableFuture::join).count();
+			return new Result(downloaded, futures.size() - downloaded);
+		});
+	}
+
+	/**
+	 * Evaluates the rules of a library the way the launcher does for a normal launch.
+	 *
+	 * @param rules the rules, or {@code null} if the library has none
+	 * @return whether the library is used on this platform
+	 */
+	public static boolean isAllowed(@Nullable JsonArray rules) {
+		if (rules == null) {
+			return true;
+		}
+
+		boolean allowed = false;
+
+		for (JsonElement element : rules) {
+			JsonObject rule = element.getAsJsonObject();
+
+			// Features such as the demo mode or a custom resolution are not enabled by default
+			if (rule.has("features")) {
+				continue;
+			}
+
+			JsonObject os = rule.getAsJsonObject("os");
+
+			if (os != null && !matchesOs(os)) {
+				continue;
+			}
+
+			allowed = "allow".equals(string(rule, "action"));
+		}
+
+		return allowed;
+	}
+
+	private static boolean matchesOs(JsonObject os) {
+		String name = string(os, "name");
+
+		if (name != null && !name.equals(OS_NAME)) {
+			return false;
+		}
+
+		String arch = string(os, "arch");
+
+		if (arch != null && !(arch.equals("x86") ? !is64Bit() : arch.equals(System.getProperty("os.arch")))) {
+			return false;
+		}
+
+		String version = string(os, "version");
+
+		return version == null || Pattern.compile(version).matcher(System.getProperty("os.version")).find();
+	}
+
+	/**
+	 * Reads the hash published next to a maven artifact.
+	 */
+	@Nullable
+	private static String readMavenSha1(URI artifact) {
+		try (InputStream stream = Connections.openConnection(URI.create(artifact + ".sha1"))) {
+			String hash = new String(stream.readNBytes(128), StandardCharsets.UTF_8).trim();
+
+			// Some repositories append the file name
+			int space = hash.indexOf(' ');
+			hash = space < 0 ? hash : hash.substring(0, space);
+
+			return hash.matches("[0-9a-fA-F]{40}") ? hash : null;
+		} catch (IOException e) {
+			return null;
+		}
+	}
+
+	private static String mavenPath(String name) {
+		String[] parts = name.split(":", 4); // Group:Artifact:Version[:Classifier]
+		String file = parts[1] + "-" + parts[2] + (parts.length > 3 ? "-" + parts[3] : "") + ".jar";
+
+		return parts[0].replace('.', '/') + "/" + parts[1] + "/" + parts[2] + "/" + file;
+	}
+
+	@Nullable
+	private static String string(JsonObject object, String key) {
+		JsonElement element = object.get(key);
+		return element != null && element.isJsonPrimitive() ? element.getAsString() : null;
+	}
+
+	private static String osName() {
+		String name = System.getProperty("os.name").toLowerCase(Locale.ROOT);
+
+		if (name.contains("win")) {
+			return "windows";
+		} else if (name.contains("mac")) {
+			return "osx";
+		}
+
+		return "linux";
+	}
+
+	private static boolean is64Bit() {
+		return System.getProperty("os.arch").contains("64");
+	}
+
+	/**
+	 * @param downloaded the number of files which were downloaded
+	 * @param existing the number of files which were already present
+	 */
+	public record Result(int downloaded, int existing) {
+		static final Result NONE = new Result(0, 0);
+
+		public Result add(Result other) {
+			return new Result(this.downloaded + other.downloaded, this.existing + other.existing);
+		}
+	}
+
+	private record Download(URI url, Path target, @Nullable String sha1) {
+		CompletableFuture<Boolean> start(Connections.DownloadListener listener) {
+			if (this.sha1 != null) {
+				return Connections.download(this.url, this.target, this.sha1, listener);
+			}
+
+			// Maven libraries in the profile json have no hash, but the repository publishes one
+			return CompletableFuture.supplyAsync(() -> readMavenSha1(this.url), Connections.DOWNLOAD_EXECUTOR)
+					.thenCompose(hash -> Connections.download(this.url, this.target, hash, listener));
+		}
+	}
+
+	private ClientPrefetch() {}
+}
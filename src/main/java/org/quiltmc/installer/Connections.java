@@ -16,15 +16,40 @@
 
 package org.quiltmc.installer;
 
+import org.jetbrains.annotations.Nullable;
+import org.quiltmc.installer.util.AtomicFiles;
+import org.quiltmc.installer.util.Trace;
+import org.quiltmc.installer.util.jfr.DownloadEvent;
 import org.quiltmc.installer.util.meta.QuiltMeta;
 
 import java.io.*;
 import java.net.URI;
 import java.net.URLConnection;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class Connections {
     public static final String INSTALLER_VERSION = getInstallerVersion();
+    /**
+     * How many times a download is attempted before giving up.
+     */
+    private static final int DOWNLOAD_ATTEMPTS = 3;
+    /**
+     * Runs file downloads. Bounded so a few thousand queued downloads don't open as many connections at once.
+     */
+    public static final ExecutorService DOWNLOAD_EXECUTOR = Executors.newFixedThreadPool(Math.min(16, Math.max(4, Runtime.getRuntime().availableProcessors() * 2)), new DownloadThreadFactory());
 
     private static String getInstallerVersion() {
         String version = QuiltMeta.class.getPackage().getImplementationVersion();
@@ -33,13 +58,259 @@ public class Connections {
     }
 
     public static InputStream openConnection(URI url) throws IOException {
+        return openConnection(url, DownloadListener.NONE);
+    }
+
+    /**
+     * Opens a connection which reports its progress as it is read.
+     *
+     * @param url the url to download from
+     * @param listener the listener to report the start and progress to; the caller tells it the download has finished
+     *                 once the file has been verified and is in place
+     * @return the stream
+     * @throws IOException if the connection could not be opened
+     */
+    public static InputStream openConnection(URI url, DownloadListener listener) throws IOException {
         URLConnection connection = url.toURL().openConnection();
         connection.setRequestProperty("User-Agent", "Quilt-Installer/" + INSTALLER_VERSION);
 
-        return connection.getInputStream();
+        InputStream stream = connection.getInputStream();
+
+        if (listener == DownloadListener.NONE) {
+            return stream;
+        }
+
+        long totalBytes = connection.getContentLengthLong();
+        listener.started(url, totalBytes);
+
+        return new ProgressInputStream(stream, url, totalBytes, listener);
     }
 
     public static Reader openReader(URI url) throws IOException {
         return new BufferedReader(new InputStreamReader(openConnection(url), StandardCharsets.UTF_8));
     }
+
+    /**
+     * Downloads a file on the {@linkplain #DOWNLOAD_EXECUTOR download executor}, unless it already exists with the
+     * expected hash.
+     *
+     * <p>The file is written to a temporary file first and only moved into place once its hash has been verified, so
+     * the target never contains a partial or corrupt download. Failed downloads are retried.
+     *
+     * @param url the url to download from
+     * @param target the file to download to
+     * @param sha1 the expected SHA-1 hash of the file, or {@code null} to trust any existing file
+     * @return a future of whether the file was downloaded, or {@code false} if it already existed
+     */
+    public static CompletableFuture<Boolean> download(URI url, Path target, @Nullable String sha1) {
+        return download(url, target, sha1, DownloadListener.NONE);
+    }
+
+    /**
+     * Downloads a file like {@link #download(URI, Path, String)}, reporting its progress and retries.
+     *
+     * @param url the url to download from
+     * @param target the file to download to
+     * @param sha1 the expected SHA-1 hash of the file, or {@code null} to trust any existing file
+     * @param listener the listener to report to
+     * @return a future of whether the file was downloaded, or {@code false} if it already existed
+     */
+    public static CompletableFuture<Boolean> download(URI url, Path target, @Nullable String sha1, DownloadListener listener) {
+        return download(url, target, sha1, listener, DOWNLOAD_EXECUTOR);
+    }
+
+    /**
+     * Downloads a file like {@link #download(URI, Path, String, DownloadListener)}, on an executor of the caller's
+     * choosing.
+     *
+     * @param url the url to download from
+     * @param target the file to download to
+     * @param sha1 the expected SHA-1 hash of the file, or {@code null} to trust any existing file
+     * @param listener the listener to report to
+     * @param executor the executor to download on
+     * @return a future of whether the file was downloaded, or {@code false} if it already existed
+     */
+    public static CompletableFuture<Boolean> download(URI url, Path target, @Nullable String sha1, DownloadListener listener, Executor executor) {
+        return CompletableFuture.supplyAsync(Trace.queued(url.toString(), "download", () -> {
+            DownloadEvent event = new DownloadEvent();
+            event.begin();
+            event.url = url.toString();
+            event.target = target.toString();
+
+            try {
+                if (Files.isRegularFile(target) && (sha1 == null || sha1.equalsIgnoreCase(sha1(target)))) {
+                    event.bytes = Files.size(target);
+                    event.cacheHit = true;
+                    event.succeeded = true;
+                    listener.existing(url, event.bytes);
+                    return false;
+                }
+
+                Files.createDirectories(target.getParent());
+                IOException failure = null;
+
+                for (int attempt = 1; attempt <= DOWNLOAD_ATTEMPTS; attempt++) {
+                    Path temp = AtomicFiles.createTempFile(target);
+
+                    try {
+                        MessageDigest digest = sha1Digest();
+
+                        try (InputStream stream = new DigestInputStream(openConnection(url, listener), digest)) {
+                            event.bytes = Files.copy(stream, temp, StandardCopyOption.REPLACE_EXISTING);
+                        }
+
+                        String actual = HexFormat.of().formatHex(digest.digest());
+
+                        if (sha1 != null && !sha1.equalsIgnoreCase(actual)) {
+                            throw new IOException(String.format("Hash mismatch for %s, expected %s but got %s", url, sha1, actual));
+                        }
+
+                        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                        // Not at the end of the stream, a download which fails its hash check is retried rather than finished
+                        listener.finished(url, event.bytes);
+                        event.succeeded = true;
+                        return true;
+                    } catch (IOException e) {
+                        if (failure == null) {
+                            failure = e;
+                        } else {
+                            failure.addSuppressed(e);
+                        }
+                    } finally {
+                        Files.deleteIfExists(temp);
+                    }
+
+                    if (attempt < DOWNLOAD_ATTEMPTS) {
+                        listener.retrying(url, attempt + 1, failure);
+
+                        try {
+                            Thread.sleep(500L * attempt);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            break;
+                        }
+                    }
+                }
+
+                throw failure;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                event.commit();
+            }
+        }), executor);
+    }
+
+    /**
+     * @param file the file
+     * @return the hex encoded SHA-1 hash of the file
+     * @throws IOException if the file could not be read
+     */
+    public static String sha1(Path file) throws IOException {
+        MessageDigest digest = sha1Digest();
+
+        try (InputStream stream = new DigestInputStream(Files.newInputStream(file), digest)) {
+            stream.transferTo(OutputStream.nullOutputStream());
+        }
+
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static MessageDigest sha1Digest() {
+        try {
+            return MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-1 is always available", e);
+        }
+    }
+
+    /**
+     * Receives the progress of downloads, possibly from several download threads at once.
+     */
+    public interface DownloadListener {
+        DownloadListener NONE = new DownloadListener() {};
+
+        /**
+         * @param url the url being downloaded
+         * @param totalBytes the size of the download, or -1 if the server did not say
+         */
+        default void started(URI url, long totalBytes) {}
+
+        default void progress(URI url, long bytes, long totalBytes) {}
+
+        /**
+         * Called once the downloaded file has been verified and moved into place.
+         */
+        default void finished(URI url, long bytes) {}
+
+        /**
+         * Called instead of any of the other methods when the file did not need to be downloaded.
+         */
+        default void existing(URI url, long bytes) {}
+
+        /**
+         * @param attempt the attempt which is about to start, starting from 2
+         * @param cause why the previous attempt failed
+         */
+        default void retrying(URI url, int attempt, IOException cause) {}
+    }
+
+    /**
+     * Counts the bytes read from a download, reporting them at most every {@link #PROGRESS_INTERVAL_NANOS}.
+     */
+    private static final class ProgressInputStream extends FilterInputStream {
+        private static final long PROGRESS_INTERVAL_NANOS = 500_000_000L;
+        private final URI url;
+        private final long totalBytes;
+        private final DownloadListener listener;
+        private long bytes;
+        private long lastProgress = System.nanoTime();
+
+        ProgressInputStream(InputStream stream, URI url, long totalBytes, DownloadListener listener) {
+            super(stream);
+            this.url = url;
+            this.totalBytes = totalBytes;
+            this.listener = listener;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int read = super.read();
+            this.count(read == -1 ? -1 : 1);
+            return read;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            this.count(read);
+            return read;
+        }
+
+        private void count(int read) {
+            if (read == -1) {
+                return;
+            }
+
+            this.bytes += read;
+            long now = System.nanoTime();
+
+            if (now - this.lastProgress >= PROGRESS_INTERVAL_NANOS) {
+                this.lastProgress = now;
+                this.listener.progress(this.url, this.bytes, this.totalBytes);
+            }
+        }
+    }
+
+    private static final class DownloadThreadFactory implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "Quilt Installer Download " + this.count.incrementAndGet());
+            // Idle downloaders should not keep the installer running
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
 }
@@ -0,0 +1,639 @@
+/*
+ * Copyright 2026 QuiltMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.quiltmc.installer;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.jetbrains.annotations.Nullable;
+import org.quiltmc.installer.action.Action;
+import org.quiltmc.installer.action.ActionFailedException;
+import org.quiltmc.installer.action.InstallClient;
+import org.quiltmc.installer.action.InstallClients;
+import org.quiltmc.installer.action.InstallServer;
+import org.quiltmc.installer.action.InstallServers;
+import org.quiltmc.installer.action.InstallStatus;
+import org.quiltmc.installer.action.SharedMetadata;
+import org.quiltmc.installer.util.InstallerCache;
+import org.quiltmc.installer.util.Reproducible;
+import org.quiltmc.installer.util.meta.LoaderVersion;
+import org.quiltmc.installer.util.meta.LoaderVersionIndex;
+import org.quiltmc.installer.util.meta.QuiltMeta;
+import org.quiltmc.installer.util.mojang.MinecraftMeta;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Runs installer jobs for other processes on this machine, so a series of installs shares one warm JVM, the
+ * {@linkplain Connections#DOWNLOAD_EXECUTOR download executor} and the {@linkplain SharedMetadata metadata}.
+ *
+ * <p>Jobs are submitted over HTTP on the loopback interface:
+ * <ul>
+ *     <li>{@code POST /jobs} with {@code {"type": "install", "args": ["server", "1.20.1", "--download-server"]}}, where
+ *     the arguments are those of the {@code install} command; {@code {"type": "list"}}, optionally with
+ *     {@code "snapshots"} and {@code "loaderBetas"}; or {@code {"type": "verify", "dir": "..."}} to check a reproducible
+ *     install against its digest. Responds with the job.</li>
+ *     <li>{@code GET /jobs} lists the jobs, {@code GET /jobs/<id>} gets one job with its result or error.</li>
+ *     <li>{@code GET /jobs/<id>/events} streams the status events of a job as one json object per line, from the
+ *     start of the job until it has finished.</li>
+ *     <li>{@code POST /shutdown} stops accepting jobs and stops the daemon once the running jobs have finished.</li>
+ * </ul>
+ *
+ * <p>Every request needs the token of the daemon as {@code Authorization: Bearer <token>}. The token is created when the
+ * daemon starts and written to a {@linkplain #tokenFile() file} in the installer cache directory, which only the user
+ * running the daemon can read. Requests with an {@code Origin} header, a {@code Host} other than the loopback interface,
+ * or a {@code POST} body which is not {@code application/json} are rejected, so web pages open in a browser on this
+ * machine cannot submit jobs.
+ */
+public final class InstallerDaemon {
+	public static final int DEFAULT_MAX_JOBS = 4;
+	/**
+	 * How long finished jobs can still be looked up.
+	 */
+	private static final Duration FINISHED_JOB_RETENTION = Duration.ofHours(1);
+	private static final int TOKEN_BYTES = 32;
+
+	private final HttpServer server;
+	private final byte[] token;
+	private final Path tokenFile;
+	private final ExecutorService jobExecutor;
+	private final ExecutorService requestExecutor;
+	private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+	private final AtomicInteger nextId = new AtomicInteger(1);
+	private final CountDownLatch shutdown = new CountDownLatch(1);
+	private volatile boolean acceptingJobs = true;
+
+	private InstallerDaemon(HttpServer server, byte[] token, Path tokenFile, int maxJobs) {
+		this.server = server;
+		this.token = token;
+		this.tokenFile = tokenFile;
+		this.jobExecutor = Executors.newFixedThreadPool(maxJobs, daemonThreads("Installer Job"));
+		// Event streams hold on to their thread until the job has finished
+		this.requestExecutor = Executors.newCachedThreadPool(daemonThreads("Installer Daemon"));
+	}
+
+	/**
+	 * Starts listening for jobs.
+	 *
+	 * @param port the loopback port to listen on, or 0 for any free port
+	 * @param maxJobs the number of jobs to run at the same time
+	 * @return the daemon
+	 * @throws IOException if the port could not be bound, or the token could not be written
+	 */
+	public static InstallerDaemon start(int port, int maxJobs) throws IOException {
+		// Only processes on this machine can submit jobs
+		HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+		byte[] randomBytes = new byte[TOKEN_BYTES];
+		new SecureRandom().nextBytes(randomBytes);
+		String token = HexFormat.of().formatHex(randomBytes);
+		Path tokenFile = InstallerCache.directory().resolve("daemon").resolve(server.getAddress().getPort() + ".token");
+
+		try {
+			writeToken(tokenFile, token);
+		} catch (IOException e) {
+			server.stop(0);
+			throw e;
+		}
+
+		InstallerDaemon daemon = new InstallerDaemon(server, token.getBytes(StandardCharsets.US_ASCII), tokenFile, maxJobs);
+
+		server.createContext("/jobs", exchange -> daemon.handle(exchange, daemon::handleJobs));
+		server.createContext("/shutdown", exchange -> daemon.handle(exchange, daemon::handleShutdown));
+		server.setExecutor(daemon.requestExecutor);
+		server.start();
+
+		return daemon;
+	}
+
+	public InetSocketAddress address() {
+		return this.server.getAddress();
+	}
+
+	/**
+	 * Gets the file holding the token requests must send, which is deleted when the daemon stops.
+	 *
+	 * @return the token file
+	 */
+	public Path tokenFile() {
+		return this.tokenFile;
+	}
+
+	/**
+	 * Waits until the daemon has been asked to shut down, then waits for the running jobs and stops the server.
+	 *
+	 * @throws InterruptedException if interrupted while waiting
+	 */
+	public void awaitShutdown() throws InterruptedException {
+		this.shutdown.await();
+		this.jobExecutor.shutdown();
+
+		// Installs can take a while, and are never abandoned halfway
+		this.jobExecutor.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+
+		// Give the event streams of the last jobs a moment to finish
+		this.server.stop(1);
+		this.requestExecutor.shutdown();
+
+		try {
+			Files.deleteIfExists(this.tokenFile);
+		} catch (IOException e) {
+			// The token is useless once the daemon has stopped
+		}
+	}
+
+	/**
+	 * Writes the token to a file only the current user can read, before any other process can open it.
+	 */
+	private static void writeToken(Path tokenFile, String token) throws IOException {
+		Files.createDirectories(tokenFile.getParent());
+		Path temp = tokenFile.resolveSibling(tokenFile.getFileName() + ".tmp");
+		Files.deleteIfExists(temp);
+
+		if (temp.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+			Files.createFile(temp, PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")));
+		} else {
+			// The cache directory is already private to the user elsewhere
+			Files.createFile(temp);
+		}
+
+		Files.writeString(temp, token, StandardCharsets.US_ASCII);
+		Files.move(temp, tokenFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+	 * Checks that a request comes from a client which read the token, rather than from a web page which got a browser to
+	 * send it.
+	 *
+	 * @return whether the request was rejected, in which case the response has been sent
+	 */
+	private boolean reject(HttpExchange exchange) throws IOException {
+		Headers headers = exchange.getRequestHeaders();
+
+		// Browsers always send the origin of cross-origin requests, other clients have no reason to
+		if (headers.containsKey("Origin")) {
+			error(exchange, 403, "Requests from web pages are not accepted");
+			return true;
+		}
+
+		// A page on a domain resolving to the loopback interface still sends that domain as the host
+		if (!isLoopbackHost(headers.getFirst("Host"))) {
+			error(exchange, 403, "The host must be the loopback interface");
+			return true;
+		}
+
+		String authorization = headers.getFirst("Authorization");
+		byte[] token = authorization != null && authorization.startsWith("Bearer ")
+				? authorization.substring("Bearer ".length()).trim().getBytes(StandardCharsets.US_ASCII)
+				: new byte[0];
+
+		if (!MessageDigest.isEqual(token, this.token)) {
+			exchange.getResponseHeaders().set("WWW-Authenticate", "Bearer");
+			error(exchange, 401, "Missing or wrong token, read it from " + this.tokenFile);
+			return true;
+		}
+
+		// Browsers can send a few content types without asking first, but never application/json
+		if (exchange.getRequestMethod().equals("POST")) {
+			String contentType = headers.getFirst("Content-Type");
+
+			if (contentType == null || !contentType.split(";", 2)[0].trim().equalsIgnoreCase("application/json")) {
+				error(exchange, 415, "The content type must be application/json");
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	private static boolean isLoopbackHost(@Nullable String host) {
+		if (host == null) {
+			return false;
+		}
+
+		String name;
+
+		if (host.startsWith("[")) {
+			int end = host.indexOf(']');
+			name = end < 0 ? host : host.substring(1, end);
+		} else {
+			int colon = host.indexOf(':');
+			name = colon < 0 ? host : host.substring(0, colon);
+		}
+
+		name = name.toLowerCase(Locale.ROOT);
+		return name.equals("localhost") || name.equals("::1") || name.equals("0:0:0:0:0:0:0:1") || name.startsWith("127.");
+	}
+
+	private void handleJobs(HttpExchange exchange) throws IOException {
+		String method = exchange.getRequestMethod();
+		// Split "/jobs/<id>/events" into "", "<id>" and "events"
+		String[] path = exchange.getRequestURI().getPath().substring("/jobs".length()).split("/", -1);
+
+		if (path.length == 1 || (path.length == 2 && path[1].isEmpty())) {
+			if (method.equals("POST")) {
+				this.submit(exchange);
+			} else if (method.equals("GET")) {
+				JsonArray jobs = new JsonArray();
+				this.jobs.values().stream().sorted((a, b) -> Integer.compare(a.number, b.number)).forEach(job -> jobs.add(job.describe()));
+				respond(exchange, 200, jobs);
+			} else {
+				error(exchange, 405, "Method not allowed");
+			}
+
+			return;
+		}
+
+		Job job = this.jobs.get(path[1]);
+
+		if (job == null) {
+			error(exchange, 404, "No job " + path[1]);
+		} else if (!method.equals("GET")) {
+			error(exchange, 405, "Method not allowed");
+		} else if (path.length == 2) {
+			respond(exchange, 200, job.describe());
+		} else if (path.length == 3 && path[2].equals("events")) {
+			exchange.getResponseHeaders().set("Content-Type", "application/x-ndjson");
+			exchange.sendResponseHeaders(200, 0);
+
+			try (OutputStream body = exchange.getResponseBody()) {
+				job.stream(body);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		} else {
+			error(exchange, 404, "Unknown path " + exchange.getRequestURI().getPath());
+		}
+	}
+
+	private void handleShutdown(HttpExchange exchange) throws IOException {
+		if (!exchange.getRequestMethod().equals("POST")) {
+			error(exchange, 405, "Method not allowed");
+			return;
+		}
+
+		this.acceptingJobs = false;
+		respond(exchange, 202, new JsonObject());
+		this.shutdown.countDown();
+	}
+
+	private void submit(HttpExchange exchange) throws IOException {
+		if (!this.acceptingJobs) {
+			error(exchange, 503, "The daemon is shutting down");
+			return;
+		}
+
+		JsonObject request;
+
+		try (var reader = new InputStreamReader(exchange.getRequestBody(), StandardCharsets.UTF_8)) {
+			request = JsonParser.parseReader(reader).getAsJsonObject();
+		} catch (JsonParseException | IllegalStateException e) {
+			error(exchange, 400, "The request must be a json object");
+			return;
+		}
+
+		String type = request.has("type") ? request.get("type").getAsString() : "";
+		Function<Job, Callable<JsonElement>> work;
+
+		switch (type) {
+		case "install": {
+			if (!request.has("args") || !request.get("args").isJsonArray()) {
+				error(exchange, 400, "An install job needs the arguments of the install command in \"args\"");
+				return;
+			}
+
+			Queue<String> args = new LinkedList<>();
+			args.add("install");
+			request.getAsJsonArray("args").forEach(arg -> args.add(arg.getAsString()));
+			Action<?> action = CliInstaller.parse(args);
+
+			if (!(action instanceof InstallClient || action instanceof InstallClients || action instanceof InstallServer || action instanceof InstallServers)) {
+				error(exchange, 400, "Invalid install arguments");
+				return;
+			}
+
+			// Every install action reports the same status updates
+			@SuppressWarnings("unchecked")
+			Action<InstallStatus> install = (Action<InstallStatus>) action;
+			work = job -> () -> {
+				install.run(status -> job.event(status.toJson()));
+				return null;
+			};
+			break;
+		}
+		case "list": {
+			boolean snapshots = request.has("snapshots") && request.get("snapshots").getAsBoolean();
+			boolean loaderBetas = request.has("loaderBetas") && request.get("loaderBetas").getAsBoolean();
+			work = job -> () -> listVersions(snapshots, loaderBetas);
+			break;
+		}
+		case "verify": {
+			if (!request.has("dir")) {
+				error(exchange, 400, "A verify job needs the directory of the install in \"dir\"");
+				return;
+			}
+
+			String dir = request.get("dir").getAsString();
+			work = job -> () -> {
+				Reproducible.Verification verification = Reproducible.verify(Paths.get(dir));
+				JsonObject result = new JsonObject();
+				result.addProperty("matches", verification.matches());
+				result.addProperty("expected", verification.expected());
+				result.addProperty("actual", verification.actual());
+				return result;
+			};
+			break;
+		}
+		default:
+			error(exchange, 400, "Unknown job type \"" + type + "\", expected \"install\", \"list\" or \"verify\"");
+			return;
+		}
+
+		this.evictFinishedJobs();
+		Job job = new Job(this.nextId.getAndIncrement(), type);
+		Callable<JsonElement> task = work.apply(job);
+		this.jobs.put(job.id, job);
+
+		try {
+			this.jobExecutor.execute(() -> job.run(task));
+		} catch (RejectedExecutionException e) {
+			this.jobs.remove(job.id);
+			error(exchange, 503, "The daemon is shutting down");
+			return;
+		}
+
+		respond(exchange, 202, job.describe());
+	}
+
+	private static JsonObject listVersions(boolean snapshots, boolean loaderBetas) {
+		SharedMetadata metadata = SharedMetadata.get();
+		MinecraftMeta manifest = metadata.manifest().join();
+		LoaderVersionIndex loaderVersions = metadata.meta().getEndpoint(QuiltMeta.LOADER_VERSIONS_ENDPOINT);
+
+		JsonObject minecraft = new JsonObject();
+		minecraft.addProperty("latestRelease", manifest.latestRelease().id());
+		minecraft.addProperty("latestSnapshot", manifest.latestSnapshot().id());
+		JsonArray minecraftVersions = new JsonArray();
+
+		for (MinecraftMeta.MinecraftVersion version : manifest) {
+			if (snapshots || version.type().equals(MinecraftMeta.MinecraftVersion.TYPE_RELEASE)) {
+				minecraftVersions.add(version.id());
+			}
+		}
+
+		minecraft.add("versions", minecraftVersions);
+
+		JsonObject loader = new JsonObject();
+		LoaderVersion latestStable = loaderVersions.latestStable();
+		LoaderVersion latestBeta = loaderVersions.latestBeta();
+		loader.addProperty("latestStable", latestStable == null ? null : latestStable.raw());
+		loader.addProperty("latestBeta", latestBeta == null ? null : latestBeta.raw());
+		JsonArray loaderVersionList = new JsonArray();
+		loaderVersions.installable(loaderBetas).forEach(loaderVersionList::add);
+		loader.add("versions", loaderVersionList);
+
+		JsonObject result = new JsonObject();
+		result.add("minecraft", minecraft);
+		result.add("loader", loader);
+		return result;
+	}
+
+	private void evictFinishedJobs() {
+		Instant oldest = Instant.now().minus(FINISHED_JOB_RETENTION);
+		this.jobs.values().removeIf(job -> job.finishedBefore(oldest));
+	}
+
+	private void handle(HttpExchange exchange, Handler handler) {
+		try {
+			if (!this.reject(exchange)) {
+				handler.handle(exchange);
+			}
+		} catch (IOException e) {
+			// The client went away
+		} catch (RuntimeException e) {
+			e.printStackTrace();
+
+			try {
+				error(exchange, 500, String.valueOf(e));
+			} catch (IOException | RuntimeException ignored) {
+				// The response had already been started
+			}
+		} finally {
+			exchange.close();
+		}
+	}
+
+	private static void error(HttpExchange exchange, int status, String message) throws IOException {
+		JsonObject error = new JsonObject();
+		error.addProperty("error", message);
+		respond(exchange, status, error);
+	}
+
+	private static void respond(HttpExchange exchange, int status, JsonElement json) throws IOException {
+		byte[] body = (json + "\n").getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().set("Content-Type", "application/json");
+		exchange.sendResponseHeaders(status, body.length);
+
+		try (OutputStream stream = exchange.getResponseBody()) {
+			stream.write(body);
+		}
+	}
+
+	private static ThreadFactory daemonThreads(String name) {
+		AtomicInteger count = new AtomicInteger(1);
+
+		return runnable -> {
+			Thread thread = new Thread(runnable, name + " " + count.getAndIncrement());
+			thread.setDaemon(true);
+			return thread;
+		};
+	}
+
+	@FunctionalInterface
+	private interface Handler {
+		void handle(HttpExchange exchange) throws IOException;
+	}
+
+	private enum State {
+		QUEUED,
+		RUNNING,
+		SUCCEEDED,
+		FAILED;
+
+		boolean isFinished() {
+			return this == SUCCEEDED || this == FAILED;
+		}
+	}
+
+	/**
+	 * A submitted job, which keeps every event so a stream opened late still sees the whole job.
+	 */
+	private static final class Job {
+		private final int number;
+		private final String id;
+		private final String type;
+		private final List<String> events = new ArrayList<>();
+		private State state = State.QUEUED;
+		@Nullable
+		private JsonElement result;
+		@Nullable
+		private String error;
+		@Nullable
+		private Instant finished;
+
+		Job(int number, String type) {
+			this.number = number;
+			this.id = Integer.toString(number);
+			this.type = type;
+			this.event("state", "state", "queued");
+		}
+
+		void run(Callable<JsonElement> work) {
+			this.setState(State.RUNNING, null, null);
+
+			try {
+				this.setState(State.SUCCEEDED, work.call(), null);
+			} catch (Exception e) {
+				ActionFailedException failure = ActionFailedException.find(e);
+
+				// Unexpected failures have not been reported by an action
+				if (failure == null) {
+					e.printStackTrace();
+				}
+
+				this.setState(State.FAILED, null, failure != null ? describe(failure) : String.valueOf(e));
+			}
+		}
+
+		void event(String type, String key, String value) {
+			JsonObject event = new JsonObject();
+			event.addProperty("time", Instant.now().toString());
+			event.addProperty("type", type);
+			event.addProperty(key, value);
+			this.event(event);
+		}
+
+		synchronized void event(JsonObject event) {
+			this.events.add(event.toString());
+			this.notifyAll();
+		}
+
+		synchronized boolean finishedBefore(Instant time) {
+			return this.finished != null && this.finished.isBefore(time);
+		}
+
+		synchronized JsonObject describe() {
+			JsonObject description = new JsonObject();
+			description.addProperty("id", this.id);
+			description.addProperty("type", this.type);
+			description.addProperty("state", this.state.name().toLowerCase(Locale.ROOT));
+
+			if (this.result != null) {
+				description.add("result", this.result);
+			}
+
+			if (this.error != null) {
+				description.addProperty("error", this.error);
+			}
+
+			return description;
+		}
+
+		/**
+		 * Writes the events of this job as they happen, returning once the job has finished.
+		 */
+		void stream(OutputStream stream) throws IOException, InterruptedException {
+			int next = 0;
+
+			while (true) {
+				List<String> batch;
+				boolean finished;
+
+				synchronized (this) {
+					while (next == this.events.size() && !this.state.isFinished()) {
+						this.wait();
+					}
+
+					batch = new ArrayList<>(this.events.subList(next, this.events.size()));
+					next = this.events.size();
+					finished = this.state.isFinished();
+				}
+
+				for (String event : batch) {
+					stream.write((event + "\n").getBytes(StandardCharsets.UTF_8));
+				}
+
+				stream.flush();
+
+				if (finished) {
+					return;
+				}
+			}
+		}
+
+		private synchronized void setState(State state, @Nullable JsonElement result, @Nullable String error) {
+			this.state = state;
+			this.result = result;
+			this.error = error;
+
+			if (state.isFinished()) {
+				this.finished = Instant.now();
+			}
+
+			// In the same lock as the state, so a stream never ends before the last event
+			this.event("state", "state", state.name().toLowerCase(Locale.ROOT));
+		}
+
+		private static String describe(ActionFailedException failure) {
+			Throwable cause = failure;
+
+			while (cause.getCause() != null) {
+				cause = cause.getCause();
+			}
+
+			return cause == failure ? failure.getMessage() : failure.getMessage() + ": " + cause;
+		}
+	}
+}
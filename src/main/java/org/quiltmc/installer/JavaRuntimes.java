@@ -0,0 +1,229 @@
+/*
+ * Copyright 2026 QuiltMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.quiltmc.installer;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+/**
+ * Finds the Java runtimes installed on a Linux machine, to start servers with one matching the game version.
+ *
+ * <p>Runtimes are found in {@code JAVA_HOME}, the usual install locations of distribution packages, vendors, SDKMAN!
+ * and IntelliJ IDEA, and the {@code java} executables on the {@code PATH}. The version of each runtime is read from
+ * its {@code release} file, without starting it.
+ */
+public final class JavaRuntimes {
+	private static final List<String> SEARCH_DIRS = List.of("/usr/lib/jvm", "/usr/lib64/jvm", "/usr/java", "/usr/local/java", "/opt", "/opt/java", "/opt/jdk", "/opt/jdks");
+	private static final List<String> HOME_SEARCH_DIRS = List.of(".sdkman/candidates/java", ".jdks", ".local/share/jdks");
+
+	/**
+	 * @return whether runtimes can be discovered on this platform
+	 */
+	public static boolean isSupported() {
+		return System.getProperty("os.name").toLowerCase(Locale.ROOT).contains("linux");
+	}
+
+	/**
+	 * Picks the best runtime for a Java version: the newest runtime of that version, preferring runtimes which ship a
+	 * default class data sharing archive. If no runtime of that version is installed, the oldest newer version is used.
+	 *
+	 * @param majorVersion the Java version required by the game
+	 * @return the runtime, or {@code null} if no runtime of at least that version was found
+	 */
+	@Nullable
+	public static JavaRuntime select(int majorVersion) {
+		// The required version first, otherwise the closest newer version
+		Comparator<JavaRuntime> preference = Comparator.<JavaRuntime>comparingInt(runtime -> runtime.version().feature())
+				.reversed()
+				.thenComparing(JavaRuntime::sharedArchive)
+				.thenComparing(JavaRuntime::version);
+
+		return discover().stream()
+				.filter(runtime -> runtime.version().feature() >= majorVersion)
+				.max(preference)
+				.orElse(null);
+	}
+
+	/**
+	 * Finds the installed runtimes, reading their versions in parallel.
+	 *
+	 * @return the runtimes, without duplicates
+	 */
+	public static List<JavaRuntime> discover() {
+		List<CompletableFuture<JavaRuntime>> futures = candidates().stream()
+				.map(home -> CompletableFuture.supplyAsync(() -> read(home)))
+				.toList();
+
+		Set<Path> seen = new LinkedHashSet<>();
+		List<JavaRuntime> runtimes = new ArrayList<>();
+
+		for (CompletableFuture<JavaRuntime> future : futures) {
+			JavaRuntime runtime = future.join();
+
+			if (runtime != null && seen.add(runtime.home())) {
+				runtimes.add(runtime);
+			}
+		}
+
+		return runtimes;
+	}
+
+	private static Set<Path> candidates() {
+		Set<Path> candidates = new LinkedHashSet<>();
+
+		String javaHome = System.getenv("JAVA_HOME");
+
+		if (javaHome != null && !javaHome.isBlank()) {
+			candidates.add(Paths.get(javaHome));
+		}
+
+		for (String dir : SEARCH_DIRS) {
+			addChildren(Paths.get(dir), candidates);
+		}
+
+		String userHome = System.getProperty("user.home");
+
+		for (String dir : HOME_SEARCH_DIRS) {
+			addChildren(Paths.get(userHome, dir), candidates);
+		}
+
+		String path = System.getenv("PATH");
+
+		if (path != null) {
+			for (String dir : path.split(File.pathSeparator)) {
+				if (dir.isEmpty()) {
+					continue;
+				}
+
+				Path java = Paths.get(dir, "java");
+
+				if (Files.isExecutable(java)) {
+					try {
+						// Usually a chain of links through /etc/alternatives into a runtime's bin folder
+						candidates.add(java.toRealPath().getParent().getParent());
+					} catch (IOException ignored) {
+						// Broken link
+					}
+				}
+			}
+		}
+
+		return candidates;
+	}
+
+	private static void addChildren(Path dir, Set<Path> candidates) {
+		if (!Files.isDirectory(dir)) {
+			return;
+		}
+
+		try (Stream<Path> children = Files.list(dir)) {
+			children.filter(Files::isDirectory).sorted().forEach(candidates::add);
+		} catch (IOException ignored) {
+			// Unreadable directories have no runtimes we can use
+		}
+	}
+
+	@Nullable
+	private static JavaRuntime read(Path home) {
+		try {
+			// Distinct paths often link to the same runtime, like default-java and the runtime it links to
+			Path realHome = home.toRealPath();
+			Path java = realHome.resolve("bin").resolve("java");
+			Path release = realHome.resolve("release");
+
+			if (!Files.isExecutable(java) || Files.notExists(release)) {
+				return null;
+			}
+
+			String version = null;
+
+			for (String line : Files.readAllLines(release, StandardCharsets.UTF_8)) {
+				if (line.startsWith("JAVA_VERSION=")) {
+					version = unquote(line.substring("JAVA_VERSION=".length()));
+					break;
+				}
+			}
+
+			if (version == null) {
+				return null;
+			}
+
+			boolean sharedArchive = Files.exists(realHome.resolve("lib").resolve("server").resolve("classes.jsa"));
+
+			return new JavaRuntime(realHome, java, parseVersion(version), sharedArchive);
+		} catch (IOException | IllegalArgumentException e) {
+			return null;
+		}
+	}
+
+	private static Runtime.Version parseVersion(String version) {
+		// Java 8 and older use 1.8.0_392
+		if (version.startsWith("1.")) {
+			String[] parts = version.substring(2).split("[._]");
+
+			int update = parts.length > 2 ? Integer.parseInt(parts[2]) : 0;
+
+			return Runtime.Version.parse(update > 0 ? parts[0] + ".0." + update : parts[0]);
+		}
+
+		// Runtime.Version does not allow trailing zeros, which some vendors write anyway
+		return Runtime.Version.parse(version.replaceFirst("(\\.0)+(?=$|[-+])", ""));
+	}
+
+	private static String unquote(String value) {
+		value = value.trim();
+
+		if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) {
+			return value.substring(1, value.length() - 1);
+		}
+
+		return value;
+	}
+
+	/**
+	 * An installed Java runtime.
+	 *
+	 * @param home the home directory of the runtime
+	 * @param executable the java executable
+	 * @param version the version of the runtime
+	 * @param sharedArchive whether the runtime ships a default class data sharing archive
+	 */
+	public record JavaRuntime(Path home, Path executable, Runtime.Version version, boolean sharedArchive) {
+		public JavaRuntime {
+			Objects.requireNonNull(home, "home");
+			Objects.requireNonNull(executable, "executable");
+			Objects.requireNonNull(version, "version");
+		}
+	}
+
+	private JavaRuntimes() {}
+}
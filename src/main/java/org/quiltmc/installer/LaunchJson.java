@@ -18,12 +18,15 @@ package org.quiltmc.installer;
 
 import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import org.quiltmc.installer.util.InstallerCache;
+import org.quiltmc.installer.util.Trace;
 import org.quiltmc.installer.util.Util;
+import org.quiltmc.installer.util.jfr.MetadataFetchEvent;
 import org.quiltmc.installer.util.meta.QuiltMeta;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
+import java.io.StringWriter;
 import java.io.UncheckedIOException;
 import java.net.URI;
 import java.nio.charset.StandardCharsets;
@@ -32,29 +35,95 @@ import java.util.concurrent.CompletableFuture;
 public final class LaunchJson {
 	public static final String LOADER_ARTIFACT_NAME = "quilt-loader";
 
+	/**
+	 * Gets the launch json of a loader version for a game version.
+	 *
+	 * <p>A published launch json never changes, so it is only downloaded once and then read from the
+	 * {@linkplain InstallerCache installer cache}.
+	 *
+	 * @param gameVersion the game version
+	 * @param loaderVersion the loader version
+	 * @param endpoint the meta endpoint of the launch json for the side being installed
+	 * @return a future of the launch json
+	 */
 	public static CompletableFuture<JsonObject> get(String gameVersion, String loaderVersion, String endpoint) {
 		var rawUrl = URI.create(QuiltMeta.DEFAULT_META_URL + String.format(endpoint, gameVersion, loaderVersion));
+		// The url contains the game version, the loader version and the side
+		String cacheKey = InstallerCache.keyFor("launch", rawUrl);
 
-		return CompletableFuture.supplyAsync(() -> {
-			try (var reader = new BufferedReader(new InputStreamReader(rawUrl.toURL().openStream(), StandardCharsets.UTF_8))) {
-				var json = Util.GSON.fromJson(reader, JsonObject.class);
-
-				// Prevents a log warning about being unable to reach the active user beacon on stable versions.
-				switch (loaderVersion) {
-					case "0.19.2", "0.19.3", "0.19.4" -> {
-						var arguments = json.getAsJsonObject("arguments");
-						arguments.asMap()
-								.computeIfAbsent("jvm", (key) -> new JsonArray())
-								.getAsJsonArray()
-								.add("-Dloader.disable_beacon=true");
+		return CompletableFuture.supplyAsync(Trace.queued("launch json " + gameVersion + " " + loaderVersion, "launch-json", () -> {
+			MetadataFetchEvent event = new MetadataFetchEvent();
+			event.begin();
+			event.url = rawUrl.toString();
+			String document = null;
+			JsonObject json = null;
+
+			try {
+				String cached = InstallerCache.readHashed(cacheKey);
+
+				if (cached != null) {
+					try {
+						json = Util.GSON.fromJson(cached, JsonObject.class);
+					} catch (JsonParseException ignored) {
+						// Download it again
+					}
+
+					if (json != null) {
+						event.cacheHit = true;
+						document = cached;
 					}
 				}
 
-				return json;
-			} catch (IOException e) {
-				throw new UncheckedIOException(e); // Handled via .exceptionally(...)
+				if (json == null) {
+					StringWriter body = new StringWriter();
+
+					// Only a cache miss shows up as a download
+					Trace.Span span = Trace.span(rawUrl.toString(), "download");
+
+					try (var reader = Connections.openReader(rawUrl)) {
+						reader.transferTo(body);
+					} catch (IOException e) {
+						throw new UncheckedIOException(e); // Handled via .exceptionally(...)
+					} finally {
+						span.close();
+					}
+
+					document = body.toString();
+					json = Util.GSON.fromJson(document, JsonObject.class);
+
+					if (json == null) {
+						throw new UncheckedIOException(new IOException("Empty launch json from " + rawUrl));
+					}
+
+					try {
+						InstallerCache.writeHashed(cacheKey, document);
+					} catch (IOException ignored) {
+						// The cache is best-effort
+					}
+				}
+
+				event.succeeded = true;
+			} finally {
+				if (event.shouldCommit()) {
+					event.bytes = document == null ? 0 : document.getBytes(StandardCharsets.UTF_8).length;
+					event.commit();
+				}
 			}
-		});
+
+			// Prevents a log warning about being unable to reach the active user beacon on stable versions.
+			// Applied after loading so the cache holds the document as published.
+			switch (loaderVersion) {
+				case "0.19.2", "0.19.3", "0.19.4" -> {
+					var arguments = json.getAsJsonObject("arguments");
+					arguments.asMap()
+							.computeIfAbsent("jvm", (key) -> new JsonArray())
+							.getAsJsonArray()
+							.add("-Dloader.disable_beacon=true");
+				}
+			}
+
+			return json;
+		}));
 	}
 
 	private LaunchJson() {}
@@ -17,19 +17,27 @@
 package org.quiltmc.installer;
 
 import com.google.gson.JsonObject;
+import com.google.gson.Strictness;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import org.jetbrains.annotations.Nullable;
+import org.quiltmc.installer.util.AtomicFiles;
 import org.quiltmc.installer.util.Util;
+import org.quiltmc.installer.util.jfr.ProfileWriteEvent;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.text.DateFormat;
-import java.text.SimpleDateFormat;
-import java.util.Base64;
-import java.util.Date;
-import java.util.Optional;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
 
 public final class LauncherProfiles {
-	private static final DateFormat ISO_8601 = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ssZ");
+	private static final DateTimeFormatter ISO_8601 = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ssZ").withZone(ZoneOffset.UTC);
 	private static final String LOADER_NAME = "Quilt";
 
 	/**
@@ -41,65 +49,280 @@ public final class LauncherProfiles {
 	 * @throws IOException if there were any issues reading or writing
 	 */
 	public static void updateProfiles(Path gameDir, String name, String gameVersion) throws IOException {
+		updateProfiles(gameDir, name, gameVersion, Instant.now());
+	}
+
+	/**
+	 * Reads the launcher_profiles, creates or modifies the existing launcher profile and then writes the new launcher profiles.
+	 *
+	 * @param gameDir the game directory
+	 * @param name the name of the profile to create or rewrite
+	 * @param gameVersion the game version
+	 * @param now the time a newly created profile is stamped with
+	 * @throws IOException if there were any issues reading or writing
+	 */
+	public static void updateProfiles(Path gameDir, String name, String gameVersion, Instant now) throws IOException {
+		updateProfiles(gameDir, List.of(new Profile(name, gameVersion)), now);
+	}
+
+	/**
+	 * Reads the launcher_profiles, creates or modifies the launcher profile of every installed version and then writes
+	 * the new launcher profiles once.
+	 *
+	 * @param gameDir the game directory
+	 * @param installed the installed versions, in order; a later version of the same game version replaces an earlier one
+	 * @param now the time newly created profiles are stamped with
+	 * @throws IOException if there were any issues reading or writing
+	 */
+	public static void updateProfiles(Path gameDir, List<Profile> installed, Instant now) throws IOException {
 		final Path launcherProfilesPath = gameDir.resolve("launcher_profiles.json");
 
 		if (Files.notExists(launcherProfilesPath)) {
 			throw new IllegalStateException("No launcher_profiles.json to read from");
 		}
-		JsonObject launcherProfiles;
 
-		try (var reader = Files.newBufferedReader(launcherProfilesPath)) {
-			launcherProfiles = Optional.ofNullable(Util.GSON.fromJson(reader, JsonObject.class)).orElseThrow(() -> new IllegalArgumentException("launcher_profiles.json must have a root object!"));
+		// A later version of the same game version replaces an earlier one
+		Map<String, String> versions = new LinkedHashMap<>();
+
+		for (Profile profile : installed) {
+			versions.remove(profile.gameVersion());
+			versions.put(profile.gameVersion(), profile.name());
 		}
 
-		JsonObject profiles = launcherProfiles.getAsJsonObject("profiles");
+		// Launcher profile files can be very large, so only the keys are kept in memory to decide which profiles to touch
+		Set<String> existing = readProfileKeys(launcherProfilesPath);
+		Map<String, Update> updates = new HashMap<>();
+		List<Update> created = new ArrayList<>();
 
-		String newProfileName = LOADER_NAME + " " + gameVersion;
+		versions.forEach((gameVersion, name) -> {
+			String newProfileName = LOADER_NAME + " " + gameVersion;
 
-		// Modify the profile
-		if (profiles.has(newProfileName)) {
-			JsonObject profile = profiles.getAsJsonObject(newProfileName);
+			if (existing.contains(newProfileName)) {
+				updates.put(newProfileName, new Update(newProfileName, name, false));
+			} else if (existing.contains("quilt-loader-" + gameVersion)) { // old style
+				updates.put("quilt-loader-" + gameVersion, new Update(newProfileName, name, true));
+			} else {
+				created.add(new Update(newProfileName, name, false));
+			}
+		});
 
-			profile.addProperty("lastVersionId", name);
-		} else if (profiles.has("quilt-loader-" + gameVersion)) { // old style
-			JsonObject profile = profiles.getAsJsonObject("quilt-loader-" + gameVersion);
+		// Write next to the profiles and move over them, so a crash never leaves a truncated file behind
+		ProfileWriteEvent event = new ProfileWriteEvent();
+		event.begin();
+		Path temp = AtomicFiles.createTempFile(launcherProfilesPath);
 
-			profile.addProperty("lastVersionId", name);
-			profile.addProperty("name", newProfileName); // update name too
-		} else {
-			// Create a new profile
-			JsonObject profile = new JsonObject();
+		try {
+			try (JsonReader reader = newReader(launcherProfilesPath); JsonWriter writer = new JsonWriter(Files.newBufferedWriter(temp, StandardCharsets.UTF_8))) {
+				writer.setIndent("  ");
+				rewrite(reader, writer, updates, created, now);
+			}
+
+			Files.move(temp, launcherProfilesPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} finally {
+			Files.deleteIfExists(temp);
+		}
+
+		if (event.shouldCommit()) {
+			event.path = launcherProfilesPath.toString();
+			event.bytes = Files.size(launcherProfilesPath);
+			event.changed = true;
+			event.commit();
+		}
+	}
+
+	private static Set<String> readProfileKeys(Path launcherProfilesPath) throws IOException {
+		Set<String> keys = new HashSet<>();
+
+		try (JsonReader reader = newReader(launcherProfilesPath)) {
+			beginRoot(reader);
 
-			var now = new Date();
+			while (reader.hasNext()) {
+				if (!reader.nextName().equals("profiles") || reader.peek() != JsonToken.BEGIN_OBJECT) {
+					reader.skipValue();
+					continue;
+				}
 
-			profile.addProperty("name", newProfileName);
-			profile.addProperty("type", "custom");
-			profile.addProperty("created", ISO_8601.format(now));
-			profile.addProperty("lastUsed", ISO_8601.format(now));
-			profile.addProperty("icon", createProfileIcon());
-			profile.addProperty("lastVersionId", name);
+				reader.beginObject();
 
-			profiles.add(newProfileName, profile);
+				while (reader.hasNext()) {
+					keys.add(reader.nextName());
+					reader.skipValue();
+				}
+
+				reader.endObject();
+			}
 		}
 
-		// Write out the new profiles
-		try (var writer = Files.newBufferedWriter(launcherProfilesPath)) {
-			Util.GSON.toJson(launcherProfiles, writer);
+		return keys;
+	}
+
+	private static void rewrite(JsonReader reader, JsonWriter writer, Map<String, Update> updates, List<Update> created, Instant now) throws IOException {
+		beginRoot(reader);
+		writer.beginObject();
+		boolean hasProfiles = false;
+
+		while (reader.hasNext()) {
+			String key = reader.nextName();
+			writer.name(key);
+
+			if (!key.equals("profiles") || reader.peek() != JsonToken.BEGIN_OBJECT) {
+				copy(reader, writer);
+				continue;
+			}
+
+			hasProfiles = true;
+			reader.beginObject();
+			writer.beginObject();
+
+			while (reader.hasNext()) {
+				String profileKey = reader.nextName();
+				@Nullable
+				Update update = updates.get(profileKey);
+				writer.name(profileKey);
+
+				if (update == null) {
+					copy(reader, writer);
+				} else {
+					// Only the profiles being modified are read into a tree
+					JsonObject profile = Util.GSON.fromJson(reader, JsonObject.class);
+
+					profile.addProperty("lastVersionId", update.versionName());
+
+					if (update.rename()) {
+						profile.addProperty("name", update.profileName()); // update name too
+					}
+
+					Util.GSON.toJson(profile, writer);
+				}
+			}
+
+			writeCreated(writer, created, now);
+			reader.endObject();
+			writer.endObject();
+		}
+
+		if (!hasProfiles) {
+			writer.name("profiles");
+			writer.beginObject();
+			writeCreated(writer, created, now);
+			writer.endObject();
 		}
+
+		reader.endObject();
+		writer.endObject();
 	}
 
-	private static String createProfileIcon() {
-		try (var stream = LauncherProfiles.class.getClassLoader().getResourceAsStream("icon.png")) {
-			if (stream != null) {
-				return "data:image/png;base64," + Base64.getEncoder().encodeToString(stream.readAllBytes());
+	private static void writeCreated(JsonWriter writer, List<Update> created, Instant now) throws IOException {
+		for (Update update : created) {
+			// Create a new profile
+			writer.name(update.profileName());
+			writer.beginObject();
+			writer.name("name").value(update.profileName());
+			writer.name("type").value("custom");
+			writer.name("created").value(ISO_8601.format(now));
+			writer.name("lastUsed").value(ISO_8601.format(now));
+			writer.name("icon").value(Icon.ENCODED);
+			writer.name("lastVersionId").value(update.versionName());
+			writer.endObject();
+		}
+	}
+
+	/**
+	 * Copies the next value token by token, so unchanged profiles never need to be held in memory.
+	 */
+	private static void copy(JsonReader reader, JsonWriter writer) throws IOException {
+		switch (reader.peek()) {
+		case BEGIN_OBJECT:
+			reader.beginObject();
+			writer.beginObject();
+
+			while (reader.hasNext()) {
+				writer.name(reader.nextName());
+				copy(reader, writer);
 			}
-		} catch (IOException e) {
-			e.printStackTrace();
+
+			reader.endObject();
+			writer.endObject();
+			break;
+		case BEGIN_ARRAY:
+			reader.beginArray();
+			writer.beginArray();
+
+			while (reader.hasNext()) {
+				copy(reader, writer);
+			}
+
+			reader.endArray();
+			writer.endArray();
+			break;
+		case STRING:
+			writer.value(reader.nextString());
+			break;
+		case NUMBER:
+			// Keep the number exactly as it was written
+			writer.jsonValue(reader.nextString());
+			break;
+		case BOOLEAN:
+			writer.value(reader.nextBoolean());
+			break;
+		case NULL:
+			reader.nextNull();
+			writer.nullValue();
+			break;
+		default:
+			throw new IllegalStateException("Unexpected token " + reader.peek() + " at " + reader.getPath());
+		}
+	}
+
+	private static JsonReader newReader(Path path) throws IOException {
+		JsonReader reader = new JsonReader(Files.newBufferedReader(path, StandardCharsets.UTF_8));
+		// Matches what Gson accepted when the whole file was parsed
+		reader.setStrictness(Strictness.LENIENT);
+		return reader;
+	}
+
+	private static void beginRoot(JsonReader reader) throws IOException {
+		if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+			throw new IllegalArgumentException("launcher_profiles.json must have a root object!");
 		}
 
-		// Failed, fallback to a non-vanilla icon
-		return "TNT";
+		reader.beginObject();
 	}
 
+	/**
+	 * The icon is the same for every profile, so it is only read and encoded once.
+	 */
+	private static final class Icon {
+		static final String ENCODED = createProfileIcon();
+
+		private static String createProfileIcon() {
+			try (var stream = LauncherProfiles.class.getClassLoader().getResourceAsStream("icon.png")) {
+				if (stream != null) {
+					return "data:image/png;base64," + Base64.getEncoder().encodeToString(stream.readAllBytes());
+				}
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+
+			// Failed, fallback to a non-vanilla icon
+			return "TNT";
+		}
+	}
+
+	/**
+	 * @param profileName the name of the profile
+	 * @param versionName the name of the installed version the profile launches
+	 * @param rename whether the profile has an old style key and needs its name updated
+	 */
+	private record Update(String profileName, String versionName, boolean rename) {}
+
+	/**
+	 * A version to point a launcher profile at.
+	 *
+	 * @param name the name of the installed version
+	 * @param gameVersion the game version, which selects the profile
+	 */
+	public record Profile(String name, String gameVersion) {}
+
 	private LauncherProfiles() {}
 }
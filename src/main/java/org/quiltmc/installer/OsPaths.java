@@ -28,6 +28,10 @@ public final class OsPaths {
 	private static final String MAC_LIBRARY = "Library";
 	private static final String MAC_APPLICATION_SUPPORT = "Application Support";
 	private static final String DOT_MINECRAFT = ".minecraft";
+	private static final String WIN_LOCALAPPDATA = "LOCALAPPDATA";
+	private static final String MAC_CACHES = "Caches";
+	private static final String XDG_CACHE_HOME = "XDG_CACHE_HOME";
+	private static final String INSTALLER_DIR = "quilt-installer";
 
 	/**
 	 * Gets the data directory that the Minecraft launcher is typically installed at.
@@ -75,5 +79,35 @@ public final class OsPaths {
 		return homeDir.resolve(DOT_MINECRAFT);
 	}
 
+	/**
+	 * Gets the directory the installer keeps its caches in.
+	 * This may return a platform specific value.
+	 *
+	 * @return the path to the installer cache directory
+	 */
+	public static Path getCacheDir() {
+		String userHome = System.getProperty("user.home", ".");
+		String os = System.getProperty("os.name").toLowerCase(Locale.ROOT);
+
+		Path homeDir = Paths.get(userHome);
+
+		if (os.contains("win") && System.getenv(WIN_LOCALAPPDATA) != null) {
+			return Paths.get(System.getenv(WIN_LOCALAPPDATA), INSTALLER_DIR, "cache");
+		} else if (os.contains("mac")) {
+			return homeDir.resolve(MAC_LIBRARY)
+					.resolve(MAC_CACHES)
+					.resolve(INSTALLER_DIR);
+		}
+
+		// Follow the XDG base directory spec on Linux-like OSes
+		String cacheHome = System.getenv(XDG_CACHE_HOME);
+
+		if (cacheHome != null && !cacheHome.isEmpty()) {
+			return Paths.get(cacheHome, INSTALLER_DIR);
+		}
+
+		return homeDir.resolve(".cache").resolve(INSTALLER_DIR);
+	}
+
 	private OsPaths() {}
 }
@@ -0,0 +1,210 @@
+/*
+ * Copyright 2026 QuiltMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.quiltmc.installer;
+
+import org.quiltmc.installer.util.AtomicFiles;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Extracts the contents of a bundler server jar ahead of time.
+ *
+ * <p>Since 1.18 the server jar is a bundler, which unpacks the real server jar and its libraries into
+ * {@code versions/} and {@code libraries/} on boot. The bundler skips any file that already exists with the expected
+ * hash, so extracting at install time means the first boot doesn't have to.
+ */
+public final class ServerBundler {
+	private static final String LIBRARIES = "libraries";
+	private static final String VERSIONS = "versions";
+
+	/**
+	 * Extracts the bundled libraries and versions of a server jar, verifying their hashes.
+	 *
+	 * @param serverJar the server jar
+	 * @param repoDir the directory to extract to, which is the server directory unless the server is started with a
+	 * different {@code bundlerRepoDir}
+	 * @return the number of files extracted, or -1 if the server jar is not a bundler
+	 * @throws IOException if the server jar could not be read or a file could not be extracted
+	 */
+	public static int extract(Path serverJar, Path repoDir) throws IOException {
+		try (ZipFile zip = new ZipFile(serverJar.toFile())) {
+			if (zip.getEntry("META-INF/" + VERSIONS + ".list") == null) {
+				return -1;
+			}
+
+			List<CompletableFuture<Boolean>> futures = new ArrayList<>();
+
+			for (String type : List.of(LIBRARIES, VERSIONS)) {
+				for (BundledFile file : readList(zip, type)) {
+					futures.add(CompletableFuture.supplyAsync(() -> {
+						try {
+							return extract(zip, type, file, target(repoDir, type, file));
+						} catch (IOException e) {
+							throw new UncheckedIOException(e);
+						}
+					}));
+				}
+			}
+
+			// The zip must stay open until everything has been extracted
+			CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+
+			return (int) futures.stream().filter(CompletableFuture::join).count();
+		}
+	}
+
+	/**
+	 * Lists where the bundled libraries and versions of a server jar are extracted to.
+	 *
+	 * @param serverJar the server jar
+	 * @param repoDir the directory the files are extracted to
+	 * @return the extracted files, or an empty list if the server jar is not a bundler
+	 * @throws IOException if the server jar could not be read or lists an invalid path
+	 */
+	public static List<Path> files(Path serverJar, Path repoDir) throws IOException {
+		List<Path> files = new ArrayList<>();
+
+		try (ZipFile zip = new ZipFile(serverJar.toFile())) {
+			for (String type : List.of(LIBRARIES, VERSIONS)) {
+				for (BundledFile file : readList(zip, type)) {
+					files.add(target(repoDir, type, file));
+				}
+			}
+		}
+
+		return files;
+	}
+
+	private static List<BundledFile> readList(ZipFile zip, String type) throws IOException {
+		ZipEntry entry = zip.getEntry("META-INF/" + type + ".list");
+		List<BundledFile> files = new ArrayList<>();
+
+		if (entry == null) {
+			return files;
+		}
+
+		try (BufferedReader reader = new BufferedReader(new InputStreamReader(zip.getInputStream(entry), StandardCharsets.UTF_8))) {
+			String line;
+
+			while ((line = reader.readLine()) != null) {
+				if (line.isBlank()) continue;
+
+				// <sha256>\t<id>\t<path>
+				String[] parts = line.split("\t");
+
+				if (parts.length != 3) {
+					throw new IOException("Malformed line in " + entry.getName() + ": " + line);
+				}
+
+				files.add(new BundledFile(parts[0], parts[1], parts[2]));
+			}
+		}
+
+		return files;
+	}
+
+	/**
+	 * Resolves where a bundled file is extracted to, refusing paths which would leave the directory of its type.
+	 */
+	private static Path target(Path repoDir, String type, BundledFile file) throws IOException {
+		Path typeDir = repoDir.resolve(type).toAbsolutePath().normalize();
+		Path target = typeDir.resolve(file.path()).normalize();
+
+		if (!target.startsWith(typeDir) || target.equals(typeDir)) {
+			throw new IOException("Bundled file " + file.id() + " has an invalid path: " + file.path());
+		}
+
+		return target;
+	}
+
+	/**
+	 * @return whether the file was extracted, false if it already existed with the right hash
+	 */
+	private static boolean extract(ZipFile zip, String type, BundledFile file, Path target) throws IOException {
+		if (Files.exists(target) && file.hash().equalsIgnoreCase(sha256(target))) {
+			return false;
+		}
+
+		ZipEntry entry = zip.getEntry("META-INF/" + type + "/" + file.path());
+
+		if (entry == null) {
+			throw new IOException("Bundled file " + file.id() + " is missing from the server jar");
+		}
+
+		Files.createDirectories(target.getParent());
+		Path temp = AtomicFiles.createTempFile(target);
+
+		try {
+			MessageDigest digest = newDigest();
+
+			try (InputStream stream = new DigestInputStream(zip.getInputStream(entry), digest); OutputStream out = Files.newOutputStream(temp)) {
+				stream.transferTo(out);
+			}
+
+			String hash = HexFormat.of().formatHex(digest.digest());
+
+			if (!hash.equalsIgnoreCase(file.hash())) {
+				throw new IOException(String.format("Bundled file %s has hash %s, expected %s", file.id(), hash, file.hash()));
+			}
+
+			Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			return true;
+		} finally {
+			Files.deleteIfExists(temp);
+		}
+	}
+
+	private static String sha256(Path path) throws IOException {
+		MessageDigest digest = newDigest();
+
+		try (InputStream stream = new DigestInputStream(Files.newInputStream(path), digest)) {
+			stream.transferTo(OutputStream.nullOutputStream());
+		}
+
+		return HexFormat.of().formatHex(digest.digest());
+	}
+
+	private static MessageDigest newDigest() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 is always available", e);
+		}
+	}
+
+	private record BundledFile(String hash, String id, String path) {}
+
+	private ServerBundler() {}
+}
@@ -0,0 +1,205 @@
+/*
+ * Copyright 2026 QuiltMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.quiltmc.installer;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import org.quiltmc.installer.util.AtomicFiles;
+import org.quiltmc.installer.util.Reproducible;
+import org.quiltmc.installer.util.Util;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Where the files of a server installation are placed.
+ */
+public enum ServerLayout {
+	/**
+	 * Everything in the server directory, the server jar next to the launch jar and all libraries in
+	 * {@code libraries/}.
+	 */
+	FLAT,
+	/**
+	 * Files are grouped by how often they change, so each group can be its own container image layer:
+	 *
+	 * <ol>
+	 *     <li>{@code game}: the server jar in {@code game/}, and the files extracted from it in {@code libraries/} and
+	 *     {@code versions/}, where the bundler looks for them</li>
+	 *     <li>{@code libraries}: the libraries of the loader in {@code quilt/libraries/}</li>
+	 *     <li>{@code launcher}: the loader itself in {@code quilt/loader/}, and the launch jar, scripts and other small
+	 *     files in the server directory</li>
+	 * </ol>
+	 *
+	 * <p>The tiers are listed in {@value #MANIFEST_NAME}, from the least to the most frequently changing.
+	 */
+	SPLIT;
+
+	/**
+	 * The name of the manifest listing the paths of each tier of a split installation.
+	 */
+	public static final String MANIFEST_NAME = "quilt-server-layers.json";
+	/**
+	 * The file telling the server launcher where the server jar is.
+	 */
+	public static final String LAUNCHER_PROPERTIES = "quilt-server-launcher.properties";
+	/**
+	 * Files whose content depends on the machine or on the rest of the installation, rather than on what was installed.
+	 */
+	private static final Set<String> DERIVED_FILES = Set.of(SharedArchive.ARCHIVE_NAME, SharedArchive.FINGERPRINT_NAME, Reproducible.DIGEST_FILE, MANIFEST_NAME);
+	private static final String LOADER_ARTIFACT = "org.quiltmc:" + LaunchJson.LOADER_ARTIFACT_NAME + ":";
+
+	/**
+	 * @param installDir the server directory
+	 * @return the location of the Minecraft server jar
+	 */
+	public Path serverJar(Path installDir) {
+		return this == SPLIT ? installDir.resolve("game").resolve("server.jar") : installDir.resolve("server.jar");
+	}
+
+	/**
+	 * @param installDir the server directory
+	 * @param artifactNotation the maven notation of a library from the server launch json
+	 * @return the directory the library is placed in, as a maven repository
+	 */
+	public Path librariesDir(Path installDir, String artifactNotation) {
+		if (this == FLAT) {
+			return installDir.resolve("libraries");
+		}
+
+		return installDir.resolve("quilt").resolve(artifactNotation.startsWith(LOADER_ARTIFACT) ? "loader" : "libraries");
+	}
+
+	/**
+	 * @return the paths of the installed files, relative to the server directory, without the files derived from them
+	 */
+	public List<String> installedPaths() {
+		List<String> paths = new ArrayList<>();
+
+		for (Tier tier : this.tiers()) {
+			for (String path : tier.paths()) {
+				if (!DERIVED_FILES.contains(path)) {
+					paths.add(path);
+				}
+			}
+		}
+
+		return paths;
+	}
+
+	/**
+	 * Tells the server launcher where the server jar is, if it is not next to the launch jar.
+	 *
+	 * @param installDir the server directory
+	 * @throws IOException if the launcher properties could not be written
+	 */
+	public void writeLauncherProperties(Path installDir) throws IOException {
+		if (this == FLAT) {
+			return;
+		}
+
+		writeLauncherProperties(installDir, this.serverJar(installDir));
+	}
+
+	/**
+	 * Tells the server launcher where the server jar is.
+	 *
+	 * @param installDir the server directory
+	 * @param serverJar the server jar
+	 * @throws IOException if the launcher properties could not be written
+	 */
+	public static void writeLauncherProperties(Path installDir, Path serverJar) throws IOException {
+		String path = installDir.relativize(serverJar).toString().replace('\\', '/');
+		// The launcher reads this on every start, so it must never be seen half written
+		AtomicFiles.write(installDir.resolve(LAUNCHER_PROPERTIES), ("serverJar=" + path + "\n").getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Writes the manifest listing which of the existing paths belong to which tier. A flat layout has no manifest.
+	 *
+	 * @param installDir the server directory
+	 * @throws IOException if the manifest could not be written
+	 */
+	public void writeManifest(Path installDir) throws IOException {
+		if (this == FLAT) {
+			return;
+		}
+
+		JsonObject manifest = new JsonObject();
+		manifest.addProperty("layout", this.name().toLowerCase(Locale.ROOT));
+		JsonArray tiers = new JsonArray();
+
+		for (Tier tier : this.tiers()) {
+			JsonObject object = new JsonObject();
+			object.addProperty("name", tier.name());
+			JsonArray paths = new JsonArray();
+
+			for (String path : tier.paths()) {
+				if (Files.exists(installDir.resolve(path))) {
+					paths.add(path);
+				}
+			}
+
+			object.add("paths", paths);
+			tiers.add(object);
+		}
+
+		manifest.add("tiers", tiers);
+
+		Path temp = AtomicFiles.createTempFile(installDir.resolve(MANIFEST_NAME));
+
+		try {
+			try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+				Util.GSON.toJson(manifest, writer);
+			}
+
+			Files.move(temp, installDir.resolve(MANIFEST_NAME), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} finally {
+			Files.deleteIfExists(temp);
+		}
+	}
+
+	private List<Tier> tiers() {
+		List<String> top = List.of("quilt-server-launch.jar", ServerScripts.UNIX_SCRIPT, ServerScripts.WINDOWS_SCRIPT,
+				SharedArchive.ARCHIVE_NAME, SharedArchive.FINGERPRINT_NAME, Reproducible.DIGEST_FILE);
+
+		if (this == FLAT) {
+			List<String> paths = new ArrayList<>(List.of("server.jar", "libraries", "versions"));
+			paths.addAll(top);
+			return List.of(new Tier("server", paths));
+		}
+
+		List<String> launcher = new ArrayList<>(List.of("quilt/loader", LAUNCHER_PROPERTIES, MANIFEST_NAME));
+		launcher.addAll(top);
+
+		return List.of(
+				new Tier("game", List.of("game", "libraries", "versions")),
+				new Tier("libraries", List.of("quilt/libraries")),
+				new Tier("launcher", launcher)
+		);
+	}
+
+	private record Tier(String name, List<String> paths) {}
+}
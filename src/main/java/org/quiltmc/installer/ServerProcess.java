@@ -0,0 +1,111 @@
+/*
+ * Copyright 2026 QuiltMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.quiltmc.installer;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs an installed server without a console or gui, for work which has to happen inside the server's own JVM.
+ */
+public final class ServerProcess {
+	/**
+	 * How long a server gets to shut down by itself once its time is up, before it is killed.
+	 */
+	private static final Duration SHUTDOWN_GRACE = Duration.ofSeconds(30);
+
+	/**
+	 * Runs the launch jar of an installed server and waits for it to exit.
+	 *
+	 * <p>The server's output is written to a log file which is printed if the server exits abnormally.
+	 *
+	 * @param java the java executable to run the server with
+	 * @param installDir the server directory, used as the working directory
+	 * @param launchJar the launch jar
+	 * @param jvmArgs additional arguments for the JVM
+	 * @param gameArgs arguments for the server
+	 * @param timeout how long the server may run before it is stopped
+	 * @return the exit code of the server, or -1 if the server had to be stopped
+	 * @throws IOException if the server could not be started
+	 * @throws InterruptedException if interrupted while waiting for the server
+	 */
+	public static int run(Path java, Path installDir, Path launchJar, List<String> jvmArgs, List<String> gameArgs, Duration timeout) throws IOException, InterruptedException {
+		List<String> command = new ArrayList<>();
+		command.add(java.toString());
+		command.add("-Djava.awt.headless=true");
+		command.addAll(jvmArgs);
+		command.add("-jar");
+		command.add(installDir.relativize(launchJar).toString());
+		command.addAll(gameArgs);
+
+		Path log = Files.createTempFile("quilt-installer-server", ".log");
+
+		try {
+			Process process = new ProcessBuilder(command)
+					.directory(installDir.toFile())
+					.redirectErrorStream(true)
+					.redirectOutput(log.toFile())
+					.redirectInput(ProcessBuilder.Redirect.PIPE)
+					.start();
+
+			// Nothing will ever be typed into the console
+			process.getOutputStream().close();
+
+			int exitCode;
+
+			if (process.waitFor(timeout.toMillis(), TimeUnit.MILLISECONDS)) {
+				exitCode = process.exitValue();
+			} else {
+				// Ask nicely first so the server can finish writing anything it was working on
+				process.destroy();
+
+				if (!process.waitFor(SHUTDOWN_GRACE.toMillis(), TimeUnit.MILLISECONDS)) {
+					process.destroyForcibly().waitFor();
+				}
+
+				exitCode = -1;
+			}
+
+			if (exitCode != 0) {
+				System.err.printf("Server exited with %s, output:%n", exitCode == -1 ? "a timeout" : "code " + exitCode);
+				System.err.println(Files.readString(log));
+			}
+
+			return exitCode;
+		} finally {
+			Files.deleteIfExists(log);
+		}
+	}
+
+	/**
+	 * @return the java executable servers are run with when no runtime was selected for the game version
+	 */
+	public static Path javaExecutable() {
+		boolean windows = System.getProperty("os.name").toLowerCase(Locale.ROOT).contains("win");
+
+		return Paths.get(System.getProperty("java.home"), "bin", windows ? "java.exe" : "java");
+	}
+
+	private ServerProcess() {}
+}
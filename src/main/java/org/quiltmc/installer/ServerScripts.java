@@ -16,6 +16,130 @@
 
 package org.quiltmc.installer;
 
+import org.jetbrains.annotations.Nullable;
+import org.quiltmc.installer.util.AtomicFiles;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermission;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Creates the scripts which start an installed server.
+ *
+ * <p>The scripts pick the garbage collector from the cores available when the server starts. In a container with a
+ * memory limit the heap is fixed to most of the limit and touched up front, otherwise it grows with use. The scripts
+ * use the {@linkplain SharedArchive class data sharing archive} if one has been created. Every generated flag can
+ * be overridden with environment variables, which are documented at the top of each script.
+ */
 public final class ServerScripts {
+	public static final String UNIX_SCRIPT = "start.sh";
+	public static final String WINDOWS_SCRIPT = "start.bat";
+	private static final String DEFAULT_JAVA = "java";
+
+	/**
+	 * Writes the launch scripts, replacing any existing scripts.
+	 *
+	 * @param installDir the server directory
+	 * @param launchJar the launch jar
+	 * @throws IOException if the scripts could not be written
+	 */
+	public static void write(Path installDir, Path launchJar) throws IOException {
+		write(installDir, launchJar, installDir.resolve(SharedArchive.ARCHIVE_NAME), null);
+	}
+
+	/**
+	 * Writes the launch scripts, replacing any existing scripts.
+	 *
+	 * @param installDir the server directory
+	 * @param launchJar the launch jar
+	 * @param sharedArchive the class data sharing archive to use if it exists
+	 * @param java the java executable to start the server with, or {@code null} to use the one on the path
+	 * @throws IOException if the scripts could not be written
+	 */
+	public static void write(Path installDir, Path launchJar, Path sharedArchive, @Nullable Path java) throws IOException {
+		String jar = installDir.relativize(launchJar).toString();
+		String archive = installDir.relativize(sharedArchive).toString();
+		String javaExecutable = java == null ? DEFAULT_JAVA : java.toString();
+
+		Path unixScript = installDir.resolve(UNIX_SCRIPT);
+		Files.writeString(unixScript, fill("scripts/start.sh", javaExecutable, jar.replace('\\', '/'), archive.replace('\\', '/')), StandardCharsets.UTF_8);
+		makeExecutable(unixScript);
+
+		// cmd does not like unix line endings
+		Files.writeString(installDir.resolve(WINDOWS_SCRIPT), fill("scripts/start.bat", javaExecutable, jar.replace('/', '\\'), archive.replace('/', '\\')).replace("\n", "\r\n"), StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Points the existing launch scripts at files in another directory, keeping everything else in them as it is.
+	 *
+	 * @param installDir the server directory
+	 * @param from the directory the scripts currently start the server from
+	 * @param to the directory to start the server from instead
+	 * @throws IOException if the scripts could not be rewritten
+	 */
+	public static void retarget(Path installDir, Path from, Path to) throws IOException {
+		String fromPath = installDir.relativize(from).toString().replace('\\', '/');
+		String toPath = installDir.relativize(to).toString().replace('\\', '/');
+
+		for (String script : List.of(UNIX_SCRIPT, WINDOWS_SCRIPT)) {
+			Path path = installDir.resolve(script);
+
+			if (Files.notExists(path)) {
+				continue;
+			}
+
+			char separator = script.equals(WINDOWS_SCRIPT) ? '\\' : '/';
+			String content = Files.readString(path, StandardCharsets.UTF_8)
+					.replace(fromPath.replace('/', separator) + separator, toPath.replace('/', separator) + separator);
+			AtomicFiles.write(path, content.getBytes(StandardCharsets.UTF_8));
+		}
+	}
+
+	/**
+	 * @param installDir the server directory
+	 * @return whether any launch script exists in the server directory
+	 */
+	public static boolean exists(Path installDir) {
+		return Files.exists(installDir.resolve(UNIX_SCRIPT)) || Files.exists(installDir.resolve(WINDOWS_SCRIPT));
+	}
+
+	private static String fill(String template, String java, String launchJar, String sharedArchive) throws IOException {
+		String script;
+
+		try (InputStream stream = ServerScripts.class.getClassLoader().getResourceAsStream(template)) {
+			if (stream == null) {
+				throw new IOException("Could not find script template " + template);
+			}
+
+			script = new String(stream.readAllBytes(), StandardCharsets.UTF_8);
+		}
+
+		return script.replace("@JAVA@", java)
+				.replace("@LAUNCH_JAR@", launchJar)
+				.replace("@SHARED_ARCHIVE@", sharedArchive);
+	}
+
+	private static void makeExecutable(Path script) throws IOException {
+		PosixFileAttributeView view = Files.getFileAttributeView(script, PosixFileAttributeView.class);
+
+		// Not a posix file system, Windows does not need the permission
+		if (view == null) {
+			return;
+		}
+
+		Set<PosixFilePermission> permissions = EnumSet.copyOf(view.readAttributes().permissions());
+		permissions.add(PosixFilePermission.OWNER_EXECUTE);
+		permissions.add(PosixFilePermission.GROUP_EXECUTE);
+		permissions.add(PosixFilePermission.OTHERS_EXECUTE);
+		view.setPermissions(permissions);
+	}
+
 	private ServerScripts() {}
 }
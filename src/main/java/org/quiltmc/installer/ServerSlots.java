@@ -0,0 +1,139 @@
+/*
+ * Copyright 2026 QuiltMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.quiltmc.installer;
+
+import org.jetbrains.annotations.Nullable;
+import org.quiltmc.installer.util.AtomicFiles;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Versioned installs of a server, so a new loader can be installed while the server is running and switched to, or
+ * back from, in one step.
+ *
+ * <p>Each game and loader version pair gets its own slot in {@code slots/}, holding its launch jar and server jar.
+ * Libraries are shared by all slots in the server's {@code libraries/} folder, since a library of the same version is
+ * the same file for every slot.
+ *
+ * <p>The active slot is selected by the {@code slots/current} symbolic link, which the launcher properties and scripts
+ * go through, and is also named in the {@code slots/active} file for tools and for file systems without symbolic links.
+ * Both are replaced atomically, so a server that starts at any point sees either the old or the new slot.
+ */
+public final class ServerSlots {
+	public static final String SLOTS_DIR = "slots";
+	public static final String CURRENT = "current";
+	public static final String ACTIVE_FILE = "active";
+
+	/**
+	 * @param minecraftVersion the game version
+	 * @param loaderVersion the loader version
+	 * @return the name of the slot for the versions
+	 */
+	public static String name(String minecraftVersion, String loaderVersion) {
+		return (minecraftVersion + "-" + loaderVersion).replaceAll("[^A-Za-z0-9._+-]", "_");
+	}
+
+	/**
+	 * @param installDir the server directory
+	 * @param name the name of the slot
+	 * @return the directory of the slot
+	 */
+	public static Path dir(Path installDir, String name) {
+		return installDir.resolve(SLOTS_DIR).resolve(name);
+	}
+
+	/**
+	 * @param installDir the server directory
+	 * @return the name of the active slot, or {@code null} if no slot was activated yet
+	 * @throws IOException if the active slot could not be read
+	 */
+	@Nullable
+	public static String active(Path installDir) throws IOException {
+		Path pointer = installDir.resolve(SLOTS_DIR).resolve(ACTIVE_FILE);
+
+		if (Files.notExists(pointer)) {
+			return null;
+		}
+
+		return Files.readString(pointer, StandardCharsets.UTF_8).trim();
+	}
+
+	/**
+	 * @param installDir the server directory
+	 * @return the names of the installed slots, sorted
+	 * @throws IOException if the slots could not be listed
+	 */
+	public static List<String> list(Path installDir) throws IOException {
+		Path slotsDir = installDir.resolve(SLOTS_DIR);
+
+		if (Files.notExists(slotsDir)) {
+			return List.of();
+		}
+
+		try (Stream<Path> children = Files.list(slotsDir)) {
+			return children.filter(child -> Files.isDirectory(child, LinkOption.NOFOLLOW_LINKS))
+					.map(child -> child.getFileName().toString())
+					.sorted()
+					.toList();
+		}
+	}
+
+	/**
+	 * Makes a slot the one the server starts from.
+	 *
+	 * @param installDir the server directory
+	 * @param name the name of the slot
+	 * @return the directory servers should start from: {@code slots/current}, or the slot itself if symbolic links are
+	 * not supported
+	 * @throws IOException if the slot could not be activated
+	 */
+	public static Path activate(Path installDir, String name) throws IOException {
+		Path slotsDir = installDir.resolve(SLOTS_DIR);
+
+		if (Files.notExists(slotsDir.resolve(name))) {
+			throw new IllegalArgumentException("Slot " + name + " does not exist");
+		}
+
+		AtomicFiles.write(slotsDir.resolve(ACTIVE_FILE), (name + "\n").getBytes(StandardCharsets.UTF_8));
+
+		// A link can't be replaced in place, so a new link is renamed over the old one
+		Path current = slotsDir.resolve(CURRENT);
+		Path linkTemp = slotsDir.resolve(CURRENT + ".tmp");
+
+		try {
+			Files.deleteIfExists(linkTemp);
+			Files.createSymbolicLink(linkTemp, Paths.get(name));
+			Files.move(linkTemp, current, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			return current;
+		} catch (UnsupportedOperationException | FileSystemException e) {
+			// Windows without developer mode, or a file system without links
+			Files.deleteIfExists(linkTemp);
+			return slotsDir.resolve(name);
+		}
+	}
+
+	private ServerSlots() {}
+}
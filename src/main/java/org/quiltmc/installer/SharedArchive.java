@@ -0,0 +1,166 @@
+/*
+ * Copyright 2026 QuiltMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.quiltmc.installer;
+
+import org.jetbrains.annotations.Nullable;
+import org.quiltmc.installer.util.AtomicFiles;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Creates a dynamic Class Data Sharing archive for an installed server, so the classes of the loader, its libraries
+ * and the game don't have to be loaded and verified from their jars on every boot.
+ */
+public final class SharedArchive {
+	public static final String ARCHIVE_NAME = "quilt-server-launch.jsa";
+	public static final String FINGERPRINT_NAME = ARCHIVE_NAME + ".fingerprint";
+	private static final Duration TRAINING_TIMEOUT = Duration.ofMinutes(5);
+
+	/**
+	 * Creates the archive by doing a short training run of the server, unless an archive for the same jars already exists.
+	 *
+	 * <p>The training run initializes the server settings and exits, which loads the loader, the libraries and the
+	 * game's bootstrap without needing the EULA to be accepted or creating a world.
+	 *
+	 * @param installDir the server directory
+	 * @param launchJar the launch jar
+	 * @param classPath the jars on the class path of the launch jar, including the server jar
+	 * @return whether an up-to-date archive exists
+	 * @throws IOException if the archive could not be created
+	 * @throws InterruptedException if interrupted during the training run
+	 */
+	public static boolean create(Path installDir, Path launchJar, Collection<Path> classPath) throws IOException, InterruptedException {
+		return create(ServerProcess.javaExecutable(), installDir, installDir, launchJar, classPath, List.of());
+	}
+
+	/**
+	 * Creates the archive by doing a short training run of the server, unless an archive for the same jars already exists.
+	 *
+	 * @param java the java executable the server is run with, archives only work with the runtime that created them
+	 * @param installDir the server directory
+	 * @param archiveDir the directory to create the archive in
+	 * @param launchJar the launch jar
+	 * @param classPath the jars on the class path of the launch jar, including the server jar
+	 * @param jvmArgs additional arguments for the JVM of the training run
+	 * @return whether an up-to-date archive exists
+	 * @throws IOException if the archive could not be created
+	 * @throws InterruptedException if interrupted during the training run
+	 */
+	public static boolean create(Path java, Path installDir, Path archiveDir, Path launchJar, Collection<Path> classPath, List<String> jvmArgs) throws IOException, InterruptedException {
+		Path archive = archiveDir.resolve(ARCHIVE_NAME);
+		Path fingerprintPath = archiveDir.resolve(FINGERPRINT_NAME);
+		List<Jar> jars = jars(installDir, launchJar, classPath);
+		String fingerprint = fingerprint(java, jars);
+
+		if (Files.exists(archive) && Files.exists(fingerprintPath) && Files.readString(fingerprintPath, StandardCharsets.UTF_8).equals(fingerprint)) {
+			return true;
+		}
+
+		// Dump to a temporary file, a running server may have the current archive mapped
+		Path temp = archiveDir.resolve(ARCHIVE_NAME + ".tmp");
+		Files.deleteIfExists(temp);
+
+		try {
+			List<String> trainingArgs = new ArrayList<>(jvmArgs);
+			trainingArgs.add("-XX:ArchiveClassesAtExit=" + installDir.relativize(temp));
+			ServerProcess.run(java, installDir, launchJar, trainingArgs, List.of("--initSettings", "nogui"), TRAINING_TIMEOUT);
+
+			// The archive is dumped on exit even if the server exited abnormally, it just won't contain as many classes
+			if (Files.notExists(temp)) {
+				Files.deleteIfExists(fingerprintPath);
+				return false;
+			}
+
+			Files.move(temp, archive, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			AtomicFiles.write(fingerprintPath, fingerprint.getBytes(StandardCharsets.UTF_8));
+			return true;
+		} finally {
+			Files.deleteIfExists(temp);
+		}
+	}
+
+	/**
+	 * The JVM refuses an archive if any jar it was created from has changed, so the archive is identified by the
+	 * runtime and the size, SHA-1 hash and modification time of every jar. The JVM checks the modification times
+	 * itself, the installer keeps them by leaving jars which did not change untouched.
+	 */
+	private static String fingerprint(Path java, List<Jar> jars) throws IOException {
+		StringBuilder builder = new StringBuilder();
+		builder.append(runtime(java)).append('\n');
+
+		for (Jar jar : jars) {
+			builder.append(jar.describe()).append('\n');
+		}
+
+		return builder.toString();
+	}
+
+	/**
+	 * Identifies the runtime by its release file, which names the exact build. Updating a runtime in place replaces it.
+	 */
+	private static String runtime(Path java) throws IOException {
+		Path realJava = java.toRealPath();
+		// <java home>/bin/java
+		Path release = realJava.getParent().resolveSibling("release");
+		Path identifying = Files.isRegularFile(release) ? release : realJava;
+
+		return realJava + " " + Connections.sha1(identifying);
+	}
+
+	/**
+	 * Lists the launch jar followed by the jars on its class path, which are sorted so the order they were downloaded in
+	 * doesn't matter.
+	 */
+	private static List<Jar> jars(Path installDir, Path launchJar, Collection<Path> classPath) throws IOException {
+		List<Jar> jars = new ArrayList<>();
+
+		for (Path jar : classPath) {
+			jars.add(Jar.of(installDir, jar));
+		}
+
+		jars.sort(Comparator.comparing(Jar::describe));
+		jars.add(0, Jar.of(installDir, launchJar));
+		return jars;
+	}
+
+	private record Jar(String name, long size, @Nullable String sha1, long time) {
+		static Jar of(Path installDir, Path jar) throws IOException {
+			String name = installDir.relativize(jar).toString().replace('\\', '/');
+
+			if (Files.notExists(jar)) {
+				return new Jar(name, -1, null, 0);
+			}
+
+			return new Jar(name, Files.size(jar), Connections.sha1(jar), Files.getLastModifiedTime(jar).toMillis());
+		}
+
+		String describe() {
+			return this.sha1 == null ? this.name + " missing" : this.name + " " + this.size + " " + this.sha1 + " " + this.time;
+		}
+	}
+
+	private SharedArchive() {}
+}
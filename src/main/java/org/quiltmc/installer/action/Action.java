@@ -18,6 +18,7 @@ package org.quiltmc.installer.action;
 
 import org.jetbrains.annotations.Nullable;
 import org.quiltmc.installer.CliInstaller;
+import org.quiltmc.installer.InstallerDaemon;
 import org.quiltmc.installer.Localization;
 
 import java.awt.*;
@@ -26,6 +27,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.text.MessageFormat;
+import java.util.List;
 import java.util.Locale;
 import java.util.function.Consumer;
 
@@ -97,10 +99,41 @@ public abstract class Action<M> {
 		return new InstallClient(minecraftVersion, loaderVersion, installDir, generateProfile);
 	}
 
+	public static InstallClients installClients(List<InstallClients.Target> targets, @Nullable String installDir, boolean generateProfile) {
+		return new InstallClients(targets, installDir, generateProfile);
+	}
+
 	public static InstallServer installServer(String minecraftVersion, @Nullable String loaderVersion, String installDir, boolean createScripts, boolean installServer) {
 		return new InstallServer(minecraftVersion, loaderVersion, installDir, createScripts, installServer);
 	}
 
+	public static InstallServers installServers(List<InstallServer> servers, int concurrency) {
+		return new InstallServers(servers, concurrency);
+	}
+
+	/**
+	 * Creates an action which makes another installed slot of a server the one it starts from.
+	 *
+	 * @param slot the name of the slot
+	 * @param installDir the server directory
+	 * @return the action
+	 */
+	public static Action<Void> activateSlot(String slot, @Nullable String installDir) {
+		return new ActivateSlot(slot, installDir);
+	}
+
+	/**
+	 * Creates an action which keeps running and accepts jobs from other processes on this machine.
+	 *
+	 * @param port the loopback port to listen on, or 0 for any free port
+	 * @param maxJobs the number of jobs to run at the same time
+	 * @return the action
+	 * @see InstallerDaemon
+	 */
+	public static Action<Void> daemon(int port, int maxJobs) {
+		return new Daemon(port, maxJobs);
+	}
+
 	static void println(String message) {
 		System.out.println(message);
 	}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2026 QuiltMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.quiltmc.installer.action;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Thrown when an action fails, after the action has reported why.
+ *
+ * <p>Actions throw this instead of exiting, so they can also be run inside a process which outlives them. As actions
+ * are made of futures, it usually arrives wrapped in a {@link java.util.concurrent.CompletionException}, see
+ * {@link #find(Throwable)}.
+ */
+public final class ActionFailedException extends RuntimeException {
+	private final int exitCode;
+
+	public ActionFailedException(String message, int exitCode, @Nullable Throwable cause) {
+		super(message, cause);
+		this.exitCode = exitCode;
+	}
+
+	/**
+	 * Finds the failure of an action among the causes of an exception.
+	 *
+	 * @param e the exception thrown by an action
+	 * @return the failure, or {@code null} if the action failed unexpectedly
+	 */
+	@Nullable
+	public static ActionFailedException find(Throwable e) {
+		for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+			if (cause instanceof ActionFailedException failure) {
+				return failure;
+			}
+		}
+
+		return null;
+	}
+
+	/**
+	 * @return the status the command line installer exits with
+	 */
+	public int exitCode() {
+		return this.exitCode;
+	}
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2026 QuiltMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.quiltmc.installer.action;
+
+import org.jetbrains.annotations.Nullable;
+import org.quiltmc.installer.ServerLayout;
+import org.quiltmc.installer.ServerScripts;
+import org.quiltmc.installer.ServerSlots;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * An action which switches a server installed with slots to another installed slot, such as the previous one to roll
+ * back an update.
+ *
+ * <p>Nothing is fetched or downloaded, only the pointers to the active slot are replaced.
+ */
+public final class ActivateSlot extends Action<Void> {
+	private final String slot;
+	@Nullable
+	private final String installDir;
+
+	ActivateSlot(String slot, @Nullable String installDir) {
+		this.slot = slot;
+		this.installDir = installDir;
+	}
+
+	@Override
+	public void run(Consumer<Void> statusTracker) {
+		Path installDir = (this.installDir == null) ?
+			Paths.get(System.getProperty("user.dir")).resolve("server") :
+			Paths.get(this.installDir);
+
+		try {
+			if (!Files.isDirectory(ServerSlots.dir(installDir, this.slot))) {
+				List<String> slots = ServerSlots.list(installDir);
+				eprintln(slots.isEmpty()
+						? String.format("Server at %s has no slots", installDir)
+						: String.format("Slot %s does not exist, installed slots are: %s", this.slot, String.join(", ", slots)));
+				throw new ActionFailedException("Slot " + this.slot + " does not exist", 1, null);
+			}
+
+			String previous = ServerSlots.active(installDir);
+			Path active = ServerSlots.activate(installDir, this.slot);
+			ServerLayout.writeLauncherProperties(installDir, active.resolve("server.jar"));
+
+			// Scripts going through the slots/current link follow it, without links they name the slot itself
+			if (previous != null && !active.endsWith(ServerSlots.CURRENT)) {
+				ServerScripts.retarget(installDir, ServerSlots.dir(installDir, previous), active);
+			}
+		} catch (IOException e) {
+			eprintln("Failed to activate slot " + this.slot);
+			e.printStackTrace();
+			throw new ActionFailedException("Failed to activate slot " + this.slot, 1, e);
+		}
+
+		println(String.format("Activated slot %s", this.slot));
+	}
+}
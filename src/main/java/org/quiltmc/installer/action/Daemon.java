@@ -0,0 +1,61 @@
+/*
+ * Copyright 2026 QuiltMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.quiltmc.installer.action;
+
+import org.quiltmc.installer.InstallerDaemon;
+
+import java.io.IOException;
+import java.util.function.Consumer;
+
+/**
+ * An action which runs the installer as a daemon until it is asked to shut down.
+ *
+ * @see InstallerDaemon
+ */
+public final class Daemon extends Action<Void> {
+	private final int port;
+	private final int maxJobs;
+
+	Daemon(int port, int maxJobs) {
+		this.port = port;
+		this.maxJobs = maxJobs;
+	}
+
+	@Override
+	public void run(Consumer<Void> statusTracker) {
+		InstallerDaemon daemon;
+
+		try {
+			daemon = InstallerDaemon.start(this.port, this.maxJobs);
+		} catch (IOException e) {
+			eprintln("Failed to start the installer daemon");
+			e.printStackTrace();
+			throw new ActionFailedException("Failed to start the installer daemon", 1, e);
+		}
+
+		println(String.format("Accepting jobs at: http://%s:%d/jobs", daemon.address().getHostString(), daemon.address().getPort()));
+		println("Send the token in " + daemon.tokenFile() + " with each request, as Authorization: Bearer <token>");
+
+		try {
+			daemon.awaitShutdown();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+
+		println("Installer daemon stopped");
+	}
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2026 QuiltMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.quiltmc.installer.action;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Holds back the messages and status updates of speculative work until it is known whether the work is used, so work
+ * which is discarded never shows up in the output.
+ */
+final class DeferredOutput {
+	private final List<Runnable> pending = new ArrayList<>();
+	private State state = State.HELD;
+
+	void println(String message) {
+		this.run(() -> Action.println(message));
+	}
+
+	Consumer<InstallStatus> statusTracker(Consumer<InstallStatus> statusTracker) {
+		return status -> this.run(() -> statusTracker.accept(status));
+	}
+
+	/**
+	 * Writes everything held back so far, and anything after it right away.
+	 */
+	synchronized void release() {
+		if (this.state == State.HELD) {
+			this.state = State.RELEASED;
+			this.pending.forEach(Runnable::run);
+			this.pending.clear();
+		}
+	}
+
+	/**
+	 * Drops everything held back so far, and anything after it.
+	 */
+	synchronized void discard() {
+		this.state = State.DISCARDED;
+		this.pending.clear();
+	}
+
+	// In the same lock as release, so nothing is written ahead of what was held back
+	private synchronized void run(Runnable output) {
+		switch (this.state) {
+		case HELD:
+			this.pending.add(output);
+			break;
+		case RELEASED:
+			output.run();
+			break;
+		case DISCARDED:
+			break;
+		}
+	}
+
+	private enum State {
+		HELD,
+		RELEASED,
+		DISCARDED
+	}
+}
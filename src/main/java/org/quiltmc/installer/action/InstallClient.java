@@ -17,16 +17,21 @@
 package org.quiltmc.installer.action;
 
 import org.jetbrains.annotations.Nullable;
+import org.quiltmc.installer.ClientPrefetch;
 import org.quiltmc.installer.LaunchJson;
 import org.quiltmc.installer.LauncherProfiles;
 import org.quiltmc.installer.OsPaths;
+import org.quiltmc.installer.util.Reproducible;
 import org.quiltmc.installer.util.Util;
+import org.quiltmc.installer.util.jfr.ProfileWriteEvent;
 
-import java.io.File;
 import java.io.IOException;
 import java.io.UncheckedIOException;
-import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
+import java.time.Instant;
+import java.util.List;
+import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.function.Consumer;
@@ -34,13 +39,15 @@ import java.util.function.Consumer;
 /**
  * An action which installs a new client instance.
  */
-public final class InstallClient extends Action<InstallClient.MessageType> {
+public final class InstallClient extends Action<InstallStatus> {
 	private final String minecraftVersion;
 	@Nullable
 	private final String loaderVersion;
 	private final String installDir;
 	private final boolean generateProfile;
-	private Path installDirPath;
+	private boolean reproducible;
+	private boolean prefetch;
+	private boolean prefetchAssets;
 
 	InstallClient(String minecraftVersion, @Nullable String loaderVersion, String installDir, boolean generateProfile) {
 		this.minecraftVersion = minecraftVersion;
@@ -50,13 +57,11 @@ public final class InstallClient extends Action<InstallClient.MessageType> {
 	}
 
 	@Override
-	public void run(Consumer<MessageType> statusTracker) {
+	public void run(Consumer<InstallStatus> statusTracker) {
 		Path installDir = (this.installDir == null) ?
 			OsPaths.getDefaultInstallationDir() :
 			Paths.get(this.installDir);
 
-		this.installDirPath = installDir;
-
 		println(String.format("Installing Minecraft client at: %s", installDir));
 
 		String message = (this.loaderVersion == null) ?
@@ -75,10 +80,51 @@ public final class InstallClient extends Action<InstallClient.MessageType> {
 		 * 7. (Optional) create profile if needed
 		 */
 
-		CompletableFuture<MinecraftInstallation.InstallationInfo> installationInfoFuture = MinecraftInstallation.getInfo(this.minecraftVersion, this.loaderVersion);
+		statusTracker.accept(InstallStatus.phaseStarted("install"));
+		MinecraftInstallation.Resolution resolution = MinecraftInstallation.resolve(this.minecraftVersion, this.loaderVersion);
 
-		installationInfoFuture.thenCompose(installationInfo -> LaunchJson.get(this.minecraftVersion, installationInfo.loaderVersion(), "/v3/versions/loader/%s/%s/profile/json")).thenAccept(launchJson -> {
+		this.install(installDir, resolution, statusTracker).thenAccept(profileName -> {
+			// Create the profile - this is typically set by default
+			if (this.generateProfile) {
+				try {
+					println("Creating new profile");
+					statusTracker.accept(InstallStatus.phaseStarted("profiles"));
+					LauncherProfiles.updateProfiles(installDir, profileName, this.minecraftVersion, this.profileTime());
+					statusTracker.accept(InstallStatus.phaseFinished("profiles"));
+				} catch (IOException e) {
+					throw new UncheckedIOException(e); // Handle via exceptionally
+				}
+			}
+
+			println("Completed installation");
+			statusTracker.accept(InstallStatus.phaseFinished("install"));
+		}).exceptionally(e -> {
+			eprintln("Failed to install client");
+			e.printStackTrace();
+			statusTracker.accept(InstallStatus.failed(e));
+			throw new ActionFailedException("Failed to install client", 1, e);
+		}).join();
+	}
+
+	/**
+	 * Writes the version directory of the client, without touching the launcher profiles.
+	 *
+	 * @param installDir the launcher directory
+	 * @param resolution the resolution of the versions to install
+	 * @param statusTracker the status tracker to report the phases and downloads of the install to
+	 * @return a future of the name of the installed version
+	 */
+	CompletableFuture<String> install(Path installDir, MinecraftInstallation.Resolution resolution, Consumer<InstallStatus> statusTracker) {
+		statusTracker.accept(InstallStatus.phaseStarted("resolve"));
+		CompletableFuture<MinecraftInstallation.InstallationInfo> installationInfoFuture = resolution.info().thenApply(info -> {
+			statusTracker.accept(InstallStatus.phaseFinished("resolve"));
+			return info;
+		});
+
+		// Fetch the launch json for the predicted loader version while the game version is still being validated
+		return resolution.speculate(loaderVersion -> LaunchJson.get(this.minecraftVersion, loaderVersion, "/v3/versions/loader/%s/%s/profile/json")).thenApply(launchJson -> {
 			println("Creating profile launch json");
+			statusTracker.accept(InstallStatus.phaseStarted("launch-json"));
 
 			try {
 				String profileName = String.format("%s-%s-%s",
@@ -88,15 +134,10 @@ public final class InstallClient extends Action<InstallClient.MessageType> {
 				);
 
 				// Directories
-				Path allVersionsDir = this.installDirPath.resolve("versions");
+				Path allVersionsDir = installDir.resolve("versions");
 				Path versionDir = allVersionsDir.resolve(profileName);
 				Path versionJsonPath = versionDir.resolve(profileName + ".json");
-				// Nuke everything that already exists
-				try {
-					Files.walk(versionDir).map(Path::toFile).sorted((o1, o2) -> -o1.compareTo(o2)).forEach(File::delete);
-				 } catch (IOException ignored) {
-					//
-				}
+				// Reinstalls only touch what changed, so launcher caches and file syncing see no difference
 				try {
 					Files.createDirectories(versionDir);
 				} catch (IOException e) {
@@ -121,35 +162,94 @@ public final class InstallClient extends Action<InstallClient.MessageType> {
 				}
 
 				// Write the launch json
-				try (Writer writer = Files.newBufferedWriter(versionJsonPath, StandardOpenOption.CREATE_NEW)) {
-					Util.GSON.toJson(launchJson, writer);
+				try {
+					ProfileWriteEvent event = new ProfileWriteEvent();
+					event.begin();
+					byte[] json = Util.GSON.toJson(this.reproducible ? Reproducible.canonical(launchJson) : launchJson).getBytes(StandardCharsets.UTF_8);
+					event.changed = Reproducible.writeIfChanged(versionJsonPath, json);
+
+					if (!event.changed) {
+						println("Launch json is already up to date");
+					}
+
+					event.path = versionJsonPath.toString();
+					event.bytes = json.length;
+					event.commit();
 				} catch (IOException e) {
 					throw new UncheckedIOException(e); // Handle via exceptionally
 				}
 
-				// Create the profile - this is typically set by default
-				if (this.generateProfile) {
+				statusTracker.accept(InstallStatus.phaseFinished("launch-json"));
+
+				if (this.prefetch || this.prefetchAssets) {
+					println(this.prefetchAssets ? (this.prefetch ? "Downloading libraries and assets" : "Downloading assets") : "Downloading libraries");
+
+					var version = Objects.requireNonNull(installationInfoFuture.get().manifest().getVersion(this.minecraftVersion), "No manifest version for " + this.minecraftVersion);
+					statusTracker.accept(InstallStatus.phaseStarted("prefetch"));
+					ClientPrefetch.Result result = ClientPrefetch.prefetch(installDir, launchJson, version, this.prefetch, this.prefetchAssets, InstallStatus.downloads(statusTracker)).join();
+					println(String.format("Downloaded %d files, %d were already present", result.downloaded(), result.existing()));
+					statusTracker.accept(InstallStatus.phaseFinished("prefetch"));
+				}
+
+				if (this.reproducible) {
 					try {
-						println("Creating new profile");
-						LauncherProfiles.updateProfiles(this.installDirPath, profileName, this.minecraftVersion);
+						statusTracker.accept(InstallStatus.phaseStarted("digest"));
+						String digest = Reproducible.finish(versionDir, List.of(profileName + ".json", profileName + ".jar"));
+						println("Install digest: sha256:" + digest);
+						statusTracker.accept(InstallStatus.phaseFinished("digest"));
 					} catch (IOException e) {
 						throw new UncheckedIOException(e); // Handle via exceptionally
 					}
 				}
 
-				println("Completed installation");
+				return profileName;
 			} catch (InterruptedException | ExecutionException e) {
 				// Should not happen since we allOf'd it.
 				// Anyways if it does happen let exceptionally deal with it
 				throw new RuntimeException(e);
 			}
-		}).exceptionally(e -> {
-			eprintln("Failed to install client");
-			e.printStackTrace();
-			System.exit(1);
-			return null;
-		}).join();
+		});
+	}
+
+	private Instant profileTime() {
+		return this.reproducible ? Reproducible.FIXED_TIME : Instant.now();
+	}
+
+	/**
+	 * Sets whether the install should produce the same bytes every time it is run with the same versions.
+	 *
+	 * <p>The launch json is written with sorted keys, a new launcher profile gets a fixed creation time, and a digest
+	 * of the version directory is printed and written to {@value Reproducible#DIGEST_FILE}.
+	 *
+	 * @param reproducible whether the install should be reproducible
+	 * @return this action
+	 */
+	public InstallClient reproducible(boolean reproducible) {
+		this.reproducible = reproducible;
+		return this;
+	}
+
+	/**
+	 * Sets whether to download the libraries of the profile and the game ahead of time, so the launcher doesn't have
+	 * to on the first launch.
+	 *
+	 * @param prefetch whether to download the libraries
+	 * @return this action
+	 */
+	public InstallClient prefetch(boolean prefetch) {
+		this.prefetch = prefetch;
+		return this;
 	}
 
-	public enum MessageType {}
+	/**
+	 * Sets whether to download the assets of the game ahead of time, so the launcher doesn't have to on the first
+	 * launch.
+	 *
+	 * @param prefetchAssets whether to download the assets
+	 * @return this action
+	 */
+	public InstallClient prefetchAssets(boolean prefetchAssets) {
+		this.prefetchAssets = prefetchAssets;
+		return this;
+	}
 }
@@ -0,0 +1,178 @@
+/*
+ * Copyright 2026 QuiltMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.quiltmc.installer.action;
+
+import org.jetbrains.annotations.Nullable;
+import org.quiltmc.installer.LauncherProfiles;
+import org.quiltmc.installer.OsPaths;
+import org.quiltmc.installer.util.Reproducible;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+
+/**
+ * An action which installs several client instances at once.
+ *
+ * <p>All versions are resolved against a single fetch of the metadata, and their version directories are written in
+ * parallel. The launcher profiles of every successfully installed version are then updated in a single write.
+ */
+public final class InstallClients extends Action<InstallStatus> {
+	private final List<Target> targets;
+	@Nullable
+	private final String installDir;
+	private final boolean generateProfile;
+	private boolean reproducible;
+	private boolean prefetch;
+	private boolean prefetchAssets;
+
+	InstallClients(List<Target> targets, @Nullable String installDir, boolean generateProfile) {
+		this.targets = List.copyOf(targets);
+		this.installDir = installDir;
+		this.generateProfile = generateProfile;
+	}
+
+	@Override
+	public void run(Consumer<InstallStatus> statusTracker) {
+		Path installDir = (this.installDir == null) ?
+			OsPaths.getDefaultInstallationDir() :
+			Paths.get(this.installDir);
+
+		println(String.format("Installing %d Minecraft clients at: %s", this.targets.size(), installDir));
+
+		statusTracker.accept(InstallStatus.phaseStarted("install"));
+		SharedMetadata metadata = SharedMetadata.get();
+
+		List<CompletableFuture<LauncherProfiles.Profile>> installs = new ArrayList<>(this.targets.size());
+
+		for (Target target : this.targets) {
+			InstallClient client = new InstallClient(target.minecraftVersion(), target.loaderVersion(), installDir.toString(), this.generateProfile)
+					.reproducible(this.reproducible)
+					.prefetch(this.prefetch)
+					.prefetchAssets(this.prefetchAssets);
+
+			MinecraftInstallation.Resolution resolution = MinecraftInstallation.resolve(target.minecraftVersion(), target.loaderVersion(), metadata.manifest(), metadata.meta());
+			installs.add(client.install(installDir, resolution, status -> statusTracker.accept(status.withTarget(target.toString()))).thenApply(name -> new LauncherProfiles.Profile(name, target.minecraftVersion())));
+		}
+
+		// Wait for every install, so one failure doesn't stop the profiles of the others from being created
+		CompletableFuture.allOf(installs.stream().map(install -> install.handle((profile, e) -> null)).toArray(CompletableFuture[]::new)).thenRun(() -> {
+			List<LauncherProfiles.Profile> installed = new ArrayList<>();
+			int failed = 0;
+
+			for (int i = 0; i < installs.size(); i++) {
+				Target target = this.targets.get(i);
+				CompletableFuture<LauncherProfiles.Profile> install = installs.get(i);
+
+				try {
+					installed.add(install.join());
+				} catch (CompletionException | CancellationException e) {
+					eprintln(String.format("Failed to install client %s", target));
+					e.printStackTrace();
+					statusTracker.accept(InstallStatus.failed(e).withTarget(target.toString()));
+					failed++;
+				}
+			}
+
+			if (this.generateProfile && !installed.isEmpty()) {
+				try {
+					println("Updating launcher profiles");
+					statusTracker.accept(InstallStatus.phaseStarted("profiles"));
+					LauncherProfiles.updateProfiles(installDir, installed, this.reproducible ? Reproducible.FIXED_TIME : Instant.now());
+					statusTracker.accept(InstallStatus.phaseFinished("profiles"));
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			}
+
+			if (failed > 0) {
+				eprintln(String.format("Installed %d of %d clients", installed.size(), this.targets.size()));
+				throw new ActionFailedException(String.format("Failed to install %d of %d clients", failed, this.targets.size()), 1, null);
+			}
+
+			println(String.format("Completed installation of %d clients", installed.size()));
+			statusTracker.accept(InstallStatus.phaseFinished("install"));
+		}).exceptionally(e -> {
+			if (e.getCause() instanceof ActionFailedException failure) {
+				statusTracker.accept(InstallStatus.failed(failure));
+				throw failure;
+			}
+
+			eprintln("Failed to install clients");
+			e.printStackTrace();
+			statusTracker.accept(InstallStatus.failed(e));
+			throw new ActionFailedException("Failed to install clients", 1, e);
+		}).join();
+	}
+
+	/**
+	 * Sets whether the installs should produce the same bytes every time they are run with the same versions.
+	 *
+	 * @param reproducible whether the installs should be reproducible
+	 * @return this action
+	 * @see InstallClient#reproducible(boolean)
+	 */
+	public InstallClients reproducible(boolean reproducible) {
+		this.reproducible = reproducible;
+		return this;
+	}
+
+	/**
+	 * Sets whether to download the libraries of every profile and game ahead of time.
+	 *
+	 * @param prefetch whether to download the libraries
+	 * @return this action
+	 * @see InstallClient#prefetch(boolean)
+	 */
+	public InstallClients prefetch(boolean prefetch) {
+		this.prefetch = prefetch;
+		return this;
+	}
+
+	/**
+	 * Sets whether to download the assets of every game version ahead of time.
+	 *
+	 * @param prefetchAssets whether to download the assets
+	 * @return this action
+	 * @see InstallClient#prefetchAssets(boolean)
+	 */
+	public InstallClients prefetchAssets(boolean prefetchAssets) {
+		this.prefetchAssets = prefetchAssets;
+		return this;
+	}
+
+	/**
+	 * A client to install.
+	 *
+	 * @param minecraftVersion the game version
+	 * @param loaderVersion the loader version, or {@code null} for the latest stable version
+	 */
+	public record Target(String minecraftVersion, @Nullable String loaderVersion) {
+		@Override
+		public String toString() {
+			return this.loaderVersion == null ? this.minecraftVersion : this.minecraftVersion + ":" + this.loaderVersion;
+		}
+	}
+}
@@ -22,18 +22,34 @@ import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
 import org.jetbrains.annotations.Nullable;
 import org.quiltmc.installer.Connections;
+import org.quiltmc.installer.JavaRuntimes;
 import org.quiltmc.installer.LaunchJson;
+import org.quiltmc.installer.ServerBundler;
+import org.quiltmc.installer.ServerLayout;
+import org.quiltmc.installer.ServerProcess;
+import org.quiltmc.installer.ServerScripts;
+import org.quiltmc.installer.ServerSlots;
+import org.quiltmc.installer.SharedArchive;
+import org.quiltmc.installer.util.AtomicFiles;
+import org.quiltmc.installer.util.Reproducible;
+import org.quiltmc.installer.util.Trace;
 import org.quiltmc.installer.util.Util;
+import org.quiltmc.installer.util.jfr.JarAssemblyEvent;
+import org.quiltmc.installer.util.jfr.MetadataFetchEvent;
 
 import java.io.*;
 import java.net.URI;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
+import java.time.Duration;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutionException;
+import java.util.concurrent.CompletionException;
 import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
 import java.util.jar.Manifest;
 import java.util.stream.Collectors;
 import java.util.zip.ZipEntry;
@@ -42,8 +58,16 @@ import java.util.zip.ZipOutputStream;
 /**
  * An action which creates the server launch jar and downloads the dedicated server.
  */
-public final class InstallServer extends Action<InstallServer.MessageType> {
+public final class InstallServer extends Action<InstallStatus> {
     public static final String SERVICES_DIR = "META-INF/services/";
+    /**
+     * Remapping a large mod set on a slow machine can take a while.
+     */
+    private static final Duration WARM_UP_TIMEOUT = Duration.ofMinutes(10);
+    /**
+     * Overrides the server jar from the launcher properties, for running a slot which is not active.
+     */
+    private static final String GAME_JAR_PATH_PROPERTY = "loader.gameJarPath";
 
     private final String minecraftVersion;
     @Nullable
@@ -51,8 +75,20 @@ public final class InstallServer extends Action<InstallServer.MessageType> {
     private final String installDir;
     private final boolean createScripts;
     private final boolean installServer;
+    private boolean createSharedArchive;
+    private boolean mergeLibraries;
+    private boolean extractBundler;
+    private boolean warmUp;
+    private boolean reproducible;
+    private ServerLayout layout = ServerLayout.FLAT;
+    private boolean slots;
+    private boolean activateSlot = true;
+    @Nullable
+    private JavaRuntimes.JavaRuntime runtime;
     private MinecraftInstallation.InstallationInfo installationInfo;
     private Path installedDir;
+    @Nullable
+    private ServerBatch batch;
 
     InstallServer(String minecraftVersion, @Nullable String loaderVersion, String installDir, boolean createScripts, boolean installServer) {
         this.minecraftVersion = minecraftVersion;
@@ -63,7 +99,7 @@ public final class InstallServer extends Action<InstallServer.MessageType> {
     }
 
     @Override
-    public void run(Consumer<MessageType> statusTracker) {
+    public void run(Consumer<InstallStatus> statusTracker) {
         Path installDir = (this.installDir == null) ?
 		// Make a new installation in `server` subfolder
 		Paths.get(System.getProperty("user.dir")).resolve("server") :
@@ -76,126 +112,647 @@ public final class InstallServer extends Action<InstallServer.MessageType> {
 		String.format("Installing server launcher for %s", this.minecraftVersion) :
 		String.format("Installing server launcher for %s with loader %s", this.minecraftVersion, this.loaderVersion);
 	println(message);
-
-        CompletableFuture<MinecraftInstallation.InstallationInfo> installationInfoFuture = MinecraftInstallation.getInfo(this.minecraftVersion, this.loaderVersion);
-        installationInfoFuture.thenCompose(installationInfo -> {
+        statusTracker.accept(InstallStatus.phaseStarted("install"));
+        statusTracker.accept(InstallStatus.phaseStarted("resolve"));
+        Connections.DownloadListener downloads = InstallStatus.downloads(statusTracker);
+
+        MinecraftInstallation.Resolution resolution = this.batch != null
+                ? this.batch.resolve(this.minecraftVersion, this.loaderVersion)
+                : MinecraftInstallation.resolve(this.minecraftVersion, this.loaderVersion);
+        CompletableFuture<MinecraftInstallation.InstallationInfo> installationInfoFuture = resolution.info()
+                .thenApply(info -> phaseFinished(statusTracker, "resolve", info));
+
+        // Fetch the launch json and download the libraries for the predicted loader version while the game version is still being validated,
+        // keeping them out of the installation until the loader version has been confirmed
+        CompletableFuture<ServerLibraries> librariesFuture = resolution.speculate(
+                loaderVersion -> this.stageLibraries(installDir, loaderVersion, statusTracker),
+                StagedLibraries::commit,
+                StagedLibraries::discard
+        );
+
+        installationInfoFuture.thenCombine(librariesFuture, (installationInfo, libraries) -> {
             this.installationInfo = installationInfo;
-            return LaunchJson.get(this.minecraftVersion, installationInfo.loaderVersion(), "/v3/versions/loader/%s/%s/server/json");
-        }).thenCompose(launchJson -> {
-            println("Installing libraries");
+            statusTracker.accept(InstallStatus.phaseStarted("launch-jar"));
+
+            try {
+				if (Files.notExists(installDir)) {
+					Files.createDirectories(installDir);
+				}
+
+                Path launchJar = this.launchDir(installDir).resolve("quilt-server-launch.jar");
+                Files.createDirectories(launchJar.getParent());
+
+                JarAssemblyEvent event = new JarAssemblyEvent();
+                event.begin();
+
+                Trace.Span span = Trace.span("launch jar", "launch-jar").arg("libraries", libraries.files().size());
+
+                try {
+                    if (this.mergeLibraries) {
+                        println("Merging libraries into the launch jar");
+                        createMergedLaunchJar(launchJar, libraries.mainClass(), libraries.files(), this.reproducible);
+                    } else {
+                        createLaunchJar(launchJar, libraries.mainClass(), libraries.files());
+                    }
+                } finally {
+                    span.close();
+                }
 
-            // Now we read the server's launch json
+                if (event.shouldCommit()) {
+                    event.path = launchJar.toString();
+                    event.libraries = libraries.files().size();
+                    event.merged = this.mergeLibraries;
+                    event.bytes = Files.size(launchJar);
+                    event.commit();
+                }
 
-            String mainClass = Optional.ofNullable(launchJson.getAsJsonPrimitive("launcherMainClass")).map(JsonPrimitive::getAsString).orElseThrow(() -> new IllegalStateException("launcherMainClass in server launch json was not present"));
+                // Slots point the launcher at their server jar once they are activated
+                if (!this.slots) {
+                    this.layout.writeLauncherProperties(installDir);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
 
-            JsonArray libraries = Optional.ofNullable(launchJson.getAsJsonArray("libraries")).orElseThrow(() -> new IllegalStateException("No libraries were specified!"));
+            return phaseFinished(statusTracker, "launch-jar", installationInfo);
+        }).thenCompose(installationInfo -> {
+            // Only runtimes which start the server need to match the game version
+            boolean selectRuntime = JavaRuntimes.isSupported() && (this.createScripts || this.warmUp || this.createSharedArchive);
+            CompletableFuture<JsonObject> versionJsonFuture = (this.installServer || selectRuntime)
+                    ? this.shared("version:" + minecraftVersion, () -> fetchVersionJson(minecraftVersion, installationInfo))
+                    : CompletableFuture.completedFuture(null);
+            CompletableFuture<Void> serverFuture;
+
+            // Download Minecraft server if specified
+            if (this.installServer) {
+                println("Downloading server");
+                statusTracker.accept(InstallStatus.phaseStarted("server-jar"));
+                serverFuture = versionJsonFuture.thenCompose(versionJson -> this.batch != null
+                        ? this.batch.download(serverUrl(versionJson), serverSha1(versionJson)).thenAccept(staged -> ServerBatch.materialize(staged, this.serverJar(installDir)))
+                        : downloadServer(this.serverJar(installDir), minecraftVersion, versionJson, downloads))
+                        .thenRun(() -> statusTracker.accept(InstallStatus.phaseFinished("server-jar")));
+            } else {
+                if (this.slots) {
+                    copyServerJarToSlot(installDir, this.serverJar(installDir));
+                }
 
-            Set<CompletableFuture<Path>> libraryFiles = new HashSet<>();
+                serverFuture = CompletableFuture.completedFuture(null);
+            }
 
-            for (JsonElement library : libraries) {
-                JsonObject libraryFields = library.getAsJsonObject();
+            CompletableFuture<Void> runtimeFuture = CompletableFuture.completedFuture(null);
 
-                String name = Optional.ofNullable(libraryFields.getAsJsonPrimitive("name")).map(JsonPrimitive::getAsString).orElseThrow(() -> new IllegalStateException("Library had no name!"));
-                String url = Optional.ofNullable(libraryFields.getAsJsonPrimitive("url")).map(JsonPrimitive::getAsString).orElseThrow(() -> new IllegalStateException("Library had no url!"));
+            if (selectRuntime) {
+                runtimeFuture = versionJsonFuture.handle((versionJson, e) -> {
+                    if (e != null) {
+                        eprintln("Could not read the Java version required by the game, using the default runtime");
+                    } else {
+                        this.runtime = selectRuntime(versionJson);
+                    }
 
-                libraryFiles.add(downloadLibrary(installDir.resolve("libraries"), name, url));
+                    return null;
+                });
             }
 
-            return CompletableFuture.allOf(libraryFiles.toArray(CompletableFuture[]::new)).thenAccept(_v -> {
+            return CompletableFuture.allOf(serverFuture, runtimeFuture);
+        }).thenRun(() -> {
+            Path launchDir = this.launchDir(installDir);
+            Path launchJar = launchDir.resolve("quilt-server-launch.jar");
+            Path serverJar = this.serverJar(installDir);
+            Path java = this.runtime != null ? this.runtime.executable() : ServerProcess.javaExecutable();
+
+            if (this.createScripts && !this.slots) {
+                println("Creating launch scripts");
+                statusTracker.accept(InstallStatus.phaseStarted("scripts"));
+
                 try {
-				if (Files.notExists(installDir)) {
-					Files.createDirectories(installDir);
-				}
-                    createLaunchJar(installDir.resolve("quilt-server-launch.jar"), mainClass, libraryFiles);
+                    ServerScripts.write(installDir, launchJar, installDir.resolve(SharedArchive.ARCHIVE_NAME), this.scriptJava());
                 } catch (IOException e) {
                     throw new UncheckedIOException(e);
-                } catch (InterruptedException | ExecutionException e) {
-                    throw new RuntimeException(e);
                 }
-            });
-        }).thenCompose(_v -> {
-            try {
-                MinecraftInstallation.InstallationInfo installationInfo = installationInfoFuture.get();
 
-                if (this.createScripts) {
-                    println("Creating launch scripts");
-                    // TODO: Make scripts
-                }
+                statusTracker.accept(InstallStatus.phaseFinished("scripts"));
+            }
+
+            // A slot which is not active yet has to be told which server jar to use
+            List<String> jvmArgs = this.slots ? List.of("-D" + GAME_JAR_PATH_PROPERTY + "=" + installDir.relativize(serverJar)) : List.of();
+
+            if (this.extractBundler) {
+                statusTracker.accept(InstallStatus.phaseStarted("extract-server-jar"));
+                extractBundler(installDir, serverJar);
+                statusTracker.accept(InstallStatus.phaseFinished("extract-server-jar"));
+            }
+
+            // Everything after this point depends on the machine, so it is not part of the digest
+            if (this.reproducible) {
+                List<String> paths = this.digestPaths(installDir, launchJar, serverJar, librariesFuture.join());
+                statusTracker.accept(InstallStatus.phaseStarted("digest"));
+                finishReproducible(installDir, paths);
+                statusTracker.accept(InstallStatus.phaseFinished("digest"));
+            }
+
+            // Warm up before creating the archive, so the archive contains the classes of a warm boot
+            if (this.warmUp) {
+                statusTracker.accept(InstallStatus.phaseStarted("warm-up"));
+                warmUp(java, installDir, launchJar, serverJar, jvmArgs);
+                statusTracker.accept(InstallStatus.phaseFinished("warm-up"));
+            }
+
+            if (this.createSharedArchive) {
+                statusTracker.accept(InstallStatus.phaseStarted("cds-archive"));
+                createSharedArchive(java, installDir, launchDir, launchJar, serverJar, jvmArgs, librariesFuture.join());
+                statusTracker.accept(InstallStatus.phaseFinished("cds-archive"));
+            }
 
-                // Download Minecraft server and create scripts if specified
-                if (this.installServer) {
-                    println("Downloading server");
-                    return downloadServer(installDir, minecraftVersion, installationInfo);
+            try {
+                if (this.slots) {
+                    this.finishSlot(installDir, launchDir.getFileName().toString());
                 }
 
-                return CompletableFuture.completedFuture(null);
-            } catch (InterruptedException | ExecutionException e) {
-                throw new RuntimeException(e);
+                this.layout.writeManifest(installDir);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
             }
+
+            statusTracker.accept(InstallStatus.phaseFinished("install"));
         }).exceptionally(e -> {
+            eprintln("Failed to install server");
             e.printStackTrace();
-            return null;
+            statusTracker.accept(InstallStatus.failed(e));
+            throw new ActionFailedException("Failed to install server", 1, e);
         }).join();
     }
 
-    public static CompletableFuture<Void> downloadServer(Path installDir, String minecraftVersion, MinecraftInstallation.InstallationInfo info) {
-        return CompletableFuture.runAsync(() -> {
-            // Get the info from the manifest
-            var version = Objects.requireNonNull(info.manifest().getVersion(minecraftVersion), "No manifest version for " + minecraftVersion);
-            try (var reader = Connections.openReader(version.url())) {
+    /**
+     * Downloads the libraries of a loader version into a staging directory next to the installation, holding back their
+     * output until they are {@linkplain StagedLibraries#commit() committed}.
+     */
+    private CompletableFuture<StagedLibraries> stageLibraries(Path installDir, String loaderVersion, Consumer<InstallStatus> statusTracker) {
+        DeferredOutput output = new DeferredOutput();
+        Consumer<InstallStatus> deferredStatusTracker = output.statusTracker(statusTracker);
+        deferredStatusTracker.accept(InstallStatus.phaseStarted("libraries"));
+
+        return this.shared("launch:" + this.minecraftVersion + ":" + loaderVersion, () -> LaunchJson.get(this.minecraftVersion, loaderVersion, "/v3/versions/loader/%s/%s/server/json"))
+                .thenCompose(launchJson -> stageLibraries(installDir, this.layout, launchJson, this.batch, deferredStatusTracker, output));
+    }
 
-                JsonObject read = Optional.ofNullable(Util.GSON.fromJson(reader, JsonObject.class)).orElseThrow(() -> new IllegalStateException(String.format("launchermeta for %s is not an object!", minecraftVersion)));
-                JsonObject downloads = read.getAsJsonObject("downloads");
-                JsonObject server = downloads.getAsJsonObject("server");
+    private static CompletableFuture<StagedLibraries> stageLibraries(Path installDir, ServerLayout layout, JsonObject launchJson, @Nullable ServerBatch batch, Consumer<InstallStatus> statusTracker, DeferredOutput output) {
+        output.println("Installing libraries");
 
-                String url = Optional.ofNullable(server.getAsJsonPrimitive("url")).map(JsonPrimitive::getAsString).orElseThrow(() -> new IllegalStateException("Server download url must be present"));
+        // Now we read the server's launch json
 
-                println(String.format("Downloading %s server jar from %s", minecraftVersion, url));
+        String mainClass = Optional.ofNullable(launchJson.getAsJsonPrimitive("launcherMainClass")).map(JsonPrimitive::getAsString).orElseThrow(() -> new IllegalStateException("launcherMainClass in server launch json was not present"));
 
-                try (InputStream serverDownloadStream = Connections.openConnection(URI.create(url))) {
-                    Files.copy(serverDownloadStream, installDir.resolve("server.jar"), StandardCopyOption.REPLACE_EXISTING);
-                }
-            } catch (IOException e) {
-                throw new UncheckedIOException(e); // Handled via .exceptionally(...)
+        JsonArray libraries = Optional.ofNullable(launchJson.getAsJsonArray("libraries")).orElseThrow(() -> new IllegalStateException("No libraries were specified!"));
+
+        // A batch stages its downloads itself, and shares them between servers
+        @Nullable
+        Path stagingDir = batch == null ? createStagingDir(installDir) : null;
+
+        Connections.DownloadListener downloads = InstallStatus.downloads(statusTracker);
+        // Keep the order of the launch json, it is the order the libraries should be on the class path
+        List<CompletableFuture<Path>> stagedFiles = new ArrayList<>();
+        List<Path> targets = new ArrayList<>();
+
+        for (JsonElement library : libraries) {
+            JsonObject libraryFields = library.getAsJsonObject();
+
+            String name = Optional.ofNullable(libraryFields.getAsJsonPrimitive("name")).map(JsonPrimitive::getAsString).orElseThrow(() -> new IllegalStateException("Library had no name!"));
+            String url = Optional.ofNullable(libraryFields.getAsJsonPrimitive("url")).map(JsonPrimitive::getAsString).orElseThrow(() -> new IllegalStateException("Library had no url!"));
+            URI rawUrl = URI.create(mavenToUrl(url, name));
+
+            targets.add(layout.librariesDir(installDir, name).resolve(splitArtifact(name)));
+
+            if (batch != null) {
+                stagedFiles.add(batch.download(rawUrl, null));
+            } else {
+                Path staged = Objects.requireNonNull(stagingDir).resolve(splitArtifact(name));
+                output.println("Downloading library at: " + rawUrl);
+                stagedFiles.add(Connections.download(rawUrl, staged, null, downloads).thenApply(downloaded -> staged));
             }
+        }
+
+        return CompletableFuture.allOf(stagedFiles.toArray(CompletableFuture[]::new)).handle((_v, e) -> {
+            if (e != null) {
+                new StagedLibraries(mainClass, List.of(), List.of(), stagingDir, output, statusTracker).discard();
+                throw e instanceof CompletionException ? (CompletionException) e : new CompletionException(e);
+            }
+
+            return new StagedLibraries(mainClass, stagedFiles.stream().map(CompletableFuture::join).toList(), targets, stagingDir, output, statusTracker);
         });
     }
 
-    private static CompletableFuture<Path> downloadLibrary(Path librariesDir, String name, String url) {
-        return CompletableFuture.supplyAsync(() -> {
+    /**
+     * Creates a hidden directory in the installation to stage downloads in, which is on the same file system as the
+     * installation and writable whenever the installation is.
+     */
+    private static Path createStagingDir(Path installDir) {
+        try {
+            Files.createDirectories(installDir);
+            return Files.createTempDirectory(installDir, ".quilt-installer-libraries");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void extractBundler(Path installDir, Path serverJar) {
+        if (Files.notExists(serverJar)) {
+            eprintln("Skipping server jar extraction, the server jar has not been downloaded");
+            return;
+        }
+
+        println("Extracting server jar");
+
+        try {
+            int extracted = ServerBundler.extract(serverJar, installDir);
+
+            if (extracted < 0) {
+                println("Server jar is not a bundler, nothing to extract");
+            } else {
+                println(String.format("Extracted %d files from the server jar", extracted));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Path launchDir(Path installDir) {
+        return this.slots ? ServerSlots.dir(installDir, ServerSlots.name(this.minecraftVersion, this.installationInfo.loaderVersion())) : installDir;
+    }
+
+    /**
+     * The java executable the launch scripts start the server with: the selected runtime, or the runtime the class data
+     * sharing archive is created with, since the JVM refuses an archive created by another runtime. Otherwise the
+     * scripts use the one on the path.
+     */
+    @Nullable
+    private Path scriptJava() {
+        if (this.runtime != null) {
+            return this.runtime.executable();
+        }
+
+        return this.createSharedArchive ? ServerProcess.javaExecutable() : null;
+    }
+
+    private Path serverJar(Path installDir) {
+        return this.slots ? this.launchDir(installDir).resolve("server.jar") : this.layout.serverJar(installDir);
+    }
+
+    /**
+     * Activates the slot if requested, pointing the launcher properties and scripts at it.
+     */
+    private void finishSlot(Path installDir, String name) throws IOException {
+        if (!this.activateSlot) {
+            println(String.format("Installed slot %s, it was not activated", name));
+            return;
+        }
+
+        Path active = ServerSlots.activate(installDir, name);
+        ServerLayout.writeLauncherProperties(installDir, active.resolve("server.jar"));
+
+        if (this.createScripts || ServerScripts.exists(installDir)) {
+            println("Creating launch scripts");
+            ServerScripts.write(installDir, active.resolve("quilt-server-launch.jar"), active.resolve(SharedArchive.ARCHIVE_NAME), this.scriptJava());
+        }
+
+        println(String.format("Activated slot %s", name));
+    }
+
+    /**
+     * Gives a slot the server jar from the server directory when it is not downloaded, so an existing server jar keeps
+     * working in slot mode.
+     */
+    private static void copyServerJarToSlot(Path installDir, Path serverJar) {
+        Path existing = installDir.resolve("server.jar");
+
+        if (Files.exists(serverJar) || Files.notExists(existing)) {
+            return;
+        }
+
+        try {
             try {
-                // Convert to maven url
-                URI rawUrl = URI.create(mavenToUrl(url, name));
-                println("Downloading library at: " + rawUrl);
+                Files.createLink(serverJar, existing);
+            } catch (UnsupportedOperationException | IOException e) {
+                Files.copy(existing, serverJar);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 
-                Path path = librariesDir.resolve(splitArtifact(name));
-                Files.createDirectories(path.getParent());
+    /**
+     * Lists the files written by this install, and not every file in the directories it wrote to, so files left over
+     * from installing other versions into the same directory don't change the digest.
+     */
+    private List<String> digestPaths(Path installDir, Path launchJar, Path serverJar, ServerLibraries libraries) {
+        Set<Path> files = new LinkedHashSet<>(libraries.files());
+        files.add(launchJar);
+        files.add(serverJar);
+
+        try {
+            if (this.extractBundler && Files.exists(serverJar)) {
+                files.addAll(ServerBundler.files(serverJar, installDir));
+            }
 
-                try (InputStream stream = Connections.openConnection(rawUrl)) {
-                    Files.copy(stream, path, StandardCopyOption.REPLACE_EXISTING);
-		}
-                return path;
+            // The files of the layout next to the launch jar, such as the scripts; its directories are covered above
+            if (!this.slots) {
+                for (String path : this.layout.installedPaths()) {
+                    if (Files.isRegularFile(installDir.resolve(path))) {
+                        files.add(installDir.resolve(path));
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        // The bundled files are resolved against the absolute directory
+        Path root = installDir.toAbsolutePath().normalize();
+        Set<String> paths = new LinkedHashSet<>();
+
+        for (Path file : files) {
+            paths.add(root.relativize(file.toAbsolutePath().normalize()).toString());
+        }
+
+        return new ArrayList<>(paths);
+    }
+
+    private static void finishReproducible(Path installDir, List<String> paths) {
+        try {
+            String digest = Reproducible.finish(installDir, paths);
+            println("Install digest: sha256:" + digest);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Nullable
+    private static JavaRuntimes.JavaRuntime selectRuntime(JsonObject versionJson) {
+        // Versions older than 1.17 don't declare a version, they all run on Java 8
+        int majorVersion = Optional.ofNullable(versionJson.getAsJsonObject("javaVersion"))
+                .map(javaVersion -> javaVersion.getAsJsonPrimitive("majorVersion"))
+                .map(JsonPrimitive::getAsInt)
+                .orElse(8);
+
+        JavaRuntimes.JavaRuntime runtime = JavaRuntimes.select(majorVersion);
+
+        if (runtime == null) {
+            eprintln(String.format("No Java %d runtime found, the server will use the default runtime", majorVersion));
+        } else {
+            println(String.format("Using Java %s at %s", runtime.version(), runtime.home()));
+        }
+
+        return runtime;
+    }
+
+    private static void warmUp(Path java, Path installDir, Path launchJar, Path serverJar, List<String> jvmArgs) {
+        if (Files.notExists(serverJar)) {
+            eprintln("Skipping the warm-up run, the server jar has not been downloaded");
+            return;
+        }
+
+        println("Warming up the server");
+
+        try {
+            // Initializing the settings runs all of loader's setup, including remapping and transform caching, then exits
+            int exitCode = ServerProcess.run(java, installDir, launchJar, jvmArgs, List.of("--initSettings", "nogui"), WARM_UP_TIMEOUT);
+
+            if (exitCode != 0) {
+                eprintln("The warm-up run did not finish, the first start of the server may be slower");
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static <T> T phaseFinished(Consumer<InstallStatus> statusTracker, String phase, T value) {
+        statusTracker.accept(InstallStatus.phaseFinished(phase));
+        return value;
+    }
+
+    /**
+     * Shares a fetch with the other servers of the batch this server is installed in, if any.
+     */
+    private <T> CompletableFuture<T> shared(String key, Supplier<CompletableFuture<T>> fetch) {
+        return this.batch != null ? this.batch.shared(key, fetch) : fetch.get();
+    }
+
+    private static void createSharedArchive(Path java, Path installDir, Path archiveDir, Path launchJar, Path serverJar, List<String> jvmArgs, ServerLibraries libraries) {
+        if (Files.notExists(serverJar)) {
+            eprintln("Skipping the class data sharing archive, the server jar has not been downloaded");
+            return;
+        }
+
+        println("Creating class data sharing archive");
+
+        List<Path> classPath = new ArrayList<>(libraries.files());
+        classPath.add(serverJar);
+
+        try {
+            if (!SharedArchive.create(java, installDir, archiveDir, launchJar, classPath, jvmArgs)) {
+                eprintln("Failed to create the class data sharing archive, the server will start without it");
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static CompletableFuture<JsonObject> fetchVersionJson(String minecraftVersion, MinecraftInstallation.InstallationInfo info) {
+        return CompletableFuture.supplyAsync(Trace.queued("version json " + minecraftVersion, "metadata", () -> {
+            // Get the info from the manifest
+            var version = Objects.requireNonNull(info.manifest().getVersion(minecraftVersion), "No manifest version for " + minecraftVersion);
+            MetadataFetchEvent event = new MetadataFetchEvent();
+            event.begin();
+            event.url = version.url().toString();
+
+            try (var reader = Connections.openReader(version.url())) {
+                JsonObject versionJson = Optional.ofNullable(Util.GSON.fromJson(reader, JsonObject.class)).orElseThrow(() -> new IllegalStateException(String.format("launchermeta for %s is not an object!", minecraftVersion)));
+                event.succeeded = true;
+                return versionJson;
             } catch (IOException e) {
-                throw new UncheckedIOException(e);
+                throw new UncheckedIOException(e); // Handled via .exceptionally(...)
+            } finally {
+                event.commit();
             }
-        });
+        }));
+    }
+
+    public static CompletableFuture<Void> downloadServer(Path serverJar, String minecraftVersion, JsonObject versionJson) {
+        return downloadServer(serverJar, minecraftVersion, versionJson, Connections.DownloadListener.NONE);
+    }
+
+    private static CompletableFuture<Void> downloadServer(Path serverJar, String minecraftVersion, JsonObject versionJson, Connections.DownloadListener downloads) {
+        URI url = serverUrl(versionJson);
+        println(String.format("Downloading %s server jar from %s", minecraftVersion, url));
+
+        // Verified and moved into place, the bundler extraction and the class data sharing archive trust this jar,
+        // and an existing jar with the right hash is kept
+        return Connections.download(url, serverJar, serverSha1(versionJson), downloads).thenAccept(downloaded -> {});
+    }
+
+    private static URI serverUrl(JsonObject versionJson) {
+        JsonObject downloads = versionJson.getAsJsonObject("downloads");
+        JsonObject server = downloads.getAsJsonObject("server");
+
+        return URI.create(Optional.ofNullable(server.getAsJsonPrimitive("url")).map(JsonPrimitive::getAsString).orElseThrow(() -> new IllegalStateException("Server download url must be present")));
+    }
+
+    @Nullable
+    private static String serverSha1(JsonObject versionJson) {
+        JsonObject server = versionJson.getAsJsonObject("downloads").getAsJsonObject("server");
+
+        return Optional.ofNullable(server.getAsJsonPrimitive("sha1")).map(JsonPrimitive::getAsString).orElse(null);
     }
 
     // Combine all the jars into one file for the quilt-server-launch.jar
-    private static void createLaunchJar(Path path, String mainClass, Set<CompletableFuture<Path>> libraries) throws IOException, ExecutionException, InterruptedException {
-        if (Files.exists(path)) Files.delete(path);
+    private static void createLaunchJar(Path path, String mainClass, List<Path> libraries) throws IOException {
+        Path temp = AtomicFiles.createTempFile(path);
+
+        try {
+            try (ZipOutputStream zipStream = new ZipOutputStream(Files.newOutputStream(temp))) {
+                zipStream.putNextEntry(createEntry("META-INF/MANIFEST.MF"));
+                Manifest manifest = new Manifest();
+                manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+                manifest.getMainAttributes().put(Attributes.Name.MAIN_CLASS, mainClass);
+                manifest.getMainAttributes().put(Attributes.Name.CLASS_PATH, libraries.stream().map(p -> path.getParent().relativize(p).toString().replace("\\", "/")).collect(Collectors.joining(" ")));
+                manifest.write(zipStream);
+                zipStream.closeEntry();
+            }
 
-        try (ZipOutputStream zipStream = new ZipOutputStream(Files.newOutputStream(path, StandardOpenOption.CREATE_NEW))) {
-            zipStream.putNextEntry(new ZipEntry("META-INF/MANIFEST.MF"));
+            // An unchanged launch jar keeps its modification time, which the class data sharing archive depends on
+            AtomicFiles.replaceIfChanged(temp, path);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Merges all the libraries into a single launch jar, so the server only has to open one jar on boot.
+     *
+     * <p>The libraries are written in class path order, and the main class is found through the manifest wherever it
+     * is. When multiple libraries contain the same entry, the first one on the class path wins, like it would when
+     * loading from the class path of the non-merged launch jar. Service definitions are merged instead, and signatures are dropped since they no
+     * longer match the merged jar.
+     *
+     * <p>In reproducible mode every entry gets the same fixed time instead of the time from its library. Entries
+     * which don't come from a library always get the fixed time, so installing the same libraries again produces the
+     * same jar.
+     */
+    private static void createMergedLaunchJar(Path path, String mainClass, List<Path> libraries, boolean reproducible) throws IOException {
+        boolean multiRelease = false;
+
+        for (Path library : libraries) {
+            try (JarFile jar = new JarFile(library.toFile(), false)) {
+                Manifest libraryManifest = jar.getManifest();
+
+                if (libraryManifest != null && "true".equalsIgnoreCase(libraryManifest.getMainAttributes().getValue(Attributes.Name.MULTI_RELEASE))) {
+                    multiRelease = true;
+                }
+            }
+        }
+
+        Set<String> written = new HashSet<>();
+        Map<String, Set<String>> services = new LinkedHashMap<>();
+
+        Path temp = AtomicFiles.createTempFile(path);
+
+        try (ZipOutputStream zipStream = new ZipOutputStream(Files.newOutputStream(temp))) {
+            zipStream.putNextEntry(createEntry("META-INF/MANIFEST.MF"));
             Manifest manifest = new Manifest();
             manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
             manifest.getMainAttributes().put(Attributes.Name.MAIN_CLASS, mainClass);
-            manifest.getMainAttributes().put(Attributes.Name.CLASS_PATH, libraries.stream().map(CompletableFuture::join).map(p -> path.getParent().relativize(p).toString().replace("\\", "/")).collect(Collectors.joining(" ")));
+
+            if (multiRelease) {
+                manifest.getMainAttributes().put(Attributes.Name.MULTI_RELEASE, "true");
+            }
+
             manifest.write(zipStream);
             zipStream.closeEntry();
+            written.add("META-INF/MANIFEST.MF");
+
+            for (Path library : libraries) {
+                try (JarFile jar = new JarFile(library.toFile(), false)) {
+                    Enumeration<JarEntry> entries = jar.entries();
+
+                    while (entries.hasMoreElements()) {
+                        JarEntry entry = entries.nextElement();
+                        String name = entry.getName();
+
+                        if (name.startsWith(SERVICES_DIR) && !entry.isDirectory() && name.indexOf('/', SERVICES_DIR.length()) < 0) {
+                            try (InputStream stream = jar.getInputStream(entry)) {
+                                parseServiceDefinition(name, stream, services);
+                            }
+
+                            continue;
+                        }
+
+                        if (isExcludedFromMergedJar(name) || !written.add(name)) {
+                            continue;
+                        }
+
+                        ZipEntry copy = new ZipEntry(name);
+                        copy.setTime(reproducible ? Reproducible.zipEntryTime() : entry.getTime());
+                        zipStream.putNextEntry(copy);
+
+                        if (!entry.isDirectory()) {
+                            try (InputStream stream = jar.getInputStream(entry)) {
+                                stream.transferTo(zipStream);
+                            }
+                        }
+
+                        zipStream.closeEntry();
+                    }
+                }
+            }
+
+            for (Map.Entry<String, Set<String>> service : services.entrySet()) {
+                zipStream.putNextEntry(createEntry(service.getKey()));
+                writeServiceDefinition(service.getValue(), zipStream);
+                zipStream.closeEntry();
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+
+        try {
+            // An unchanged launch jar keeps its modification time, which the class data sharing archive depends on
+            AtomicFiles.replaceIfChanged(temp, path);
+        } finally {
+            Files.deleteIfExists(temp);
         }
     }
 
+    /**
+     * Creates an entry for a file generated by the installer, with a fixed time so the same file always produces the
+     * same jar.
+     */
+    private static ZipEntry createEntry(String name) {
+        ZipEntry entry = new ZipEntry(name);
+        entry.setTime(Reproducible.zipEntryTime());
+        return entry;
+    }
+
+    private static boolean isExcludedFromMergedJar(String name) {
+        // Each library describes itself, the merged jar has its own manifest and is not a module
+        if (name.equals("META-INF/MANIFEST.MF") || name.equals("module-info.class") || (name.startsWith("META-INF/versions/") && name.endsWith("/module-info.class"))) {
+            return true;
+        }
+
+        // Signatures would not match the merged jar
+        if (name.startsWith("META-INF/") && name.indexOf('/', "META-INF/".length()) < 0) {
+            String file = name.substring("META-INF/".length()).toUpperCase(Locale.ROOT);
+            return file.endsWith(".SF") || file.endsWith(".RSA") || file.endsWith(".DSA") || file.endsWith(".EC") || file.startsWith("SIG-");
+        }
+
+        return false;
+    }
+
     private static void parseServiceDefinition(String name, InputStream rawIs, Map<String, Set<String>> services) throws IOException {
         Collection<String> out = null;
         BufferedReader reader = new BufferedReader(new InputStreamReader(rawIs, StandardCharsets.UTF_8));
@@ -240,6 +797,118 @@ public final class InstallServer extends Action<InstallServer.MessageType> {
         return "%1$s/%2$s/%3$s/%2$s-%3$s.jar".formatted(group, artifact, version);
     }
 
+    /**
+     * Sets whether to create a class data sharing archive by doing a short training run of the installed server.
+     *
+     * @param createSharedArchive whether to create the archive
+     * @return this action
+     */
+    public InstallServer createSharedArchive(boolean createSharedArchive) {
+        this.createSharedArchive = createSharedArchive;
+        return this;
+    }
+
+    /**
+     * Sets whether to merge all the libraries into the launch jar instead of referencing them from its class path.
+     *
+     * @param mergeLibraries whether to merge the libraries
+     * @return this action
+     */
+    public InstallServer mergeLibraries(boolean mergeLibraries) {
+        this.mergeLibraries = mergeLibraries;
+        return this;
+    }
+
+    /**
+     * Sets whether to extract the libraries and game jar bundled in the server jar, so the first boot does not have to.
+     *
+     * @param extractBundler whether to extract the server jar
+     * @return this action
+     */
+    public InstallServer extractBundler(boolean extractBundler) {
+        this.extractBundler = extractBundler;
+        return this;
+    }
+
+    /**
+     * Sets whether to run the installed server once so loader's caches are populated before the first real start.
+     *
+     * @param warmUp whether to do a warm-up run
+     * @return this action
+     */
+    public InstallServer warmUp(boolean warmUp) {
+        this.warmUp = warmUp;
+        return this;
+    }
+
+    /**
+     * Sets whether the install should produce the same bytes every time it is run with the same versions.
+     *
+     * <p>Zip entries and installed files get a fixed time, and a digest of the installed files is printed and written
+     * to {@value Reproducible#DIGEST_FILE}.
+     *
+     * @param reproducible whether the install should be reproducible
+     * @return this action
+     */
+    public InstallServer reproducible(boolean reproducible) {
+        this.reproducible = reproducible;
+        return this;
+    }
+
+    /**
+     * Sets where the files of the installation are placed.
+     *
+     * @param layout the layout
+     * @return this action
+     * @see ServerLayout
+     */
+    public InstallServer layout(ServerLayout layout) {
+        this.layout = layout;
+        return this;
+    }
+
+    /**
+     * Sets whether to install into a versioned slot which shares its libraries with the other slots of the server.
+     *
+     * @param slots whether to install into a slot
+     * @return this action
+     * @see ServerSlots
+     */
+    public InstallServer slots(boolean slots) {
+        this.slots = slots;
+        return this;
+    }
+
+    /**
+     * Sets whether the installed slot becomes the one the server starts from. An inactive slot can be prepared while
+     * the server is running, and activated later by installing it again.
+     *
+     * @param activateSlot whether to activate the slot
+     * @return this action
+     */
+    public InstallServer activateSlot(boolean activateSlot) {
+        this.activateSlot = activateSlot;
+        return this;
+    }
+
+    /**
+     * Sets the batch this server is installed with, sharing resolution, metadata and downloads with the other servers.
+     *
+     * @param batch the batch
+     * @return this action
+     */
+    InstallServer batch(ServerBatch batch) {
+        this.batch = batch;
+        return this;
+    }
+
+    /**
+     * @return the directory the server is installed at
+     */
+    String installDir() {
+        return this.installDir;
+    }
+
     public String minecraftVersion() {
         return this.minecraftVersion;
     }
@@ -252,5 +921,43 @@ public final class InstallServer extends Action<InstallServer.MessageType> {
         return this.installedDir;
     }
 
-    public enum MessageType {}
+    private record ServerLibraries(String mainClass, List<Path> files) {}
+
+    /**
+     * Libraries which have been downloaded, but not yet put into the installation.
+     *
+     * @param files the staged files, in class path order
+     * @param targets where each staged file goes in the installation
+     * @param stagingDir the directory holding the staged files, or {@code null} if a batch holds them
+     */
+    private record StagedLibraries(String mainClass, List<Path> files, List<Path> targets, @Nullable Path stagingDir, DeferredOutput output, Consumer<InstallStatus> statusTracker) {
+        ServerLibraries commit() {
+            for (int i = 0; i < this.files.size(); i++) {
+                ServerBatch.materialize(this.files.get(i), this.targets.get(i));
+            }
+
+            this.deleteStagingDir();
+            this.statusTracker.accept(InstallStatus.phaseFinished("libraries"));
+            this.output.release();
+            return new ServerLibraries(this.mainClass, this.targets);
+        }
+
+        void discard() {
+            this.output.discard();
+            this.deleteStagingDir();
+        }
+
+        private void deleteStagingDir() {
+            if (this.stagingDir == null) {
+                return;
+            }
+
+            try {
+                ServerBatch.deleteStagingDir(this.stagingDir);
+            } catch (IOException e) {
+                eprintln("Failed to clean up the download directory " + this.stagingDir);
+                e.printStackTrace();
+            }
+        }
+    }
 }
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2026 QuiltMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.quiltmc.installer.action;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * An action which installs several servers at once, usually from a plan file.
+ *
+ * <p>Servers which install the same versions share their resolution and metadata, and every distinct file is
+ * downloaded only once and then linked or copied into each server. Downloads are limited to a number running at the
+ * same time across all servers, and so are the servers being installed.
+ */
+public final class InstallServers extends Action<InstallStatus> {
+	public static final int DEFAULT_CONCURRENCY = 8;
+
+	private final List<InstallServer> servers;
+	private final int concurrency;
+
+	InstallServers(List<InstallServer> servers, int concurrency) {
+		this.servers = List.copyOf(servers);
+		this.concurrency = concurrency;
+	}
+
+	@Override
+	public void run(Consumer<InstallStatus> statusTracker) {
+		println(String.format("Installing %d servers", this.servers.size()));
+
+		// Staged in a hidden directory of the first server, so they are usually on the same file system as the servers
+		// and can be linked instead of copied, without needing write access to the directory the servers are in
+		Path firstDir = Paths.get(this.servers.get(0).installDir()).toAbsolutePath();
+		Path stagingDir;
+
+		try {
+			Files.createDirectories(firstDir);
+			stagingDir = Files.createTempDirectory(firstDir, ".quilt-installer-downloads");
+		} catch (IOException e) {
+			eprintln("Failed to create the download directory");
+			e.printStackTrace();
+			throw new ActionFailedException("Failed to create the download directory", 1, e);
+		}
+
+		ExecutorService executor = Executors.newFixedThreadPool(this.concurrency, runnable -> {
+			Thread thread = new Thread(runnable, "Server Batch Install");
+			thread.setDaemon(true);
+			return thread;
+		});
+		int failed = 0;
+
+		try (ServerBatch batch = new ServerBatch(stagingDir, this.concurrency, InstallStatus.downloads(statusTracker))) {
+			List<CompletableFuture<Void>> installs = new ArrayList<>(this.servers.size());
+
+			for (InstallServer server : this.servers) {
+				String target = server.installDir();
+				installs.add(CompletableFuture.runAsync(() -> server.batch(batch).run(status -> statusTracker.accept(status.withTarget(target))), executor));
+			}
+
+			for (int i = 0; i < installs.size(); i++) {
+				try {
+					installs.get(i).join();
+				} catch (RuntimeException e) {
+					// The server has already reported why it failed
+					if (ActionFailedException.find(e) == null) {
+						e.printStackTrace();
+					}
+
+					eprintln(String.format("Failed to install server at %s", this.servers.get(i).installDir()));
+					failed++;
+				}
+			}
+		} catch (IOException e) {
+			eprintln("Failed to clean up the download directory " + stagingDir);
+			e.printStackTrace();
+		} finally {
+			executor.shutdown();
+		}
+
+		if (failed > 0) {
+			eprintln(String.format("Installed %d of %d servers", this.servers.size() - failed, this.servers.size()));
+			throw new ActionFailedException(String.format("Failed to install %d of %d servers", failed, this.servers.size()), 1, null);
+		}
+
+		println(String.format("Completed installation of %d servers", this.servers.size()));
+	}
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2026 QuiltMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.quiltmc.installer.action;
+
+import com.google.gson.JsonObject;
+import org.jetbrains.annotations.Nullable;
+import org.quiltmc.installer.Connections;
+
+import java.io.IOException;
+import java.net.URI;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.function.Consumer;
+
+/**
+ * A status update of an install, sent to the status tracker of the install actions.
+ *
+ * @param type the kind of update
+ * @param time when it happened
+ * @param phase the phase which started or finished
+ * @param url the url being downloaded
+ * @param bytes the bytes downloaded so far, or the size of a finished or existing download
+ * @param totalBytes the size of the download, or -1 if it is not known
+ * @param attempt the attempt of a retried download
+ * @param message why the download is retried or the install failed
+ * @param target the installation the update is about, when several are installed at once
+ */
+public record InstallStatus(MessageType type, Instant time, @Nullable String phase, @Nullable URI url, long bytes,
+		long totalBytes, int attempt, @Nullable String message, @Nullable String target) {
+	public static InstallStatus phaseStarted(String phase) {
+		return new InstallStatus(MessageType.PHASE_STARTED, Instant.now(), phase, null, -1, -1, 0, null, null);
+	}
+
+	public static InstallStatus phaseFinished(String phase) {
+		return new InstallStatus(MessageType.PHASE_FINISHED, Instant.now(), phase, null, -1, -1, 0, null, null);
+	}
+
+	public static InstallStatus failed(Throwable cause) {
+		Throwable root = cause;
+
+		while (root.getCause() != null) {
+			root = root.getCause();
+		}
+
+		return new InstallStatus(MessageType.FAILED, Instant.now(), null, null, -1, -1, 0, String.valueOf(root), null);
+	}
+
+	/**
+	 * @param target the installation this update is about
+	 * @return a copy of this update for the installation
+	 */
+	public InstallStatus withTarget(String target) {
+		return new InstallStatus(this.type, this.time, this.phase, this.url, this.bytes, this.totalBytes, this.attempt, this.message, target);
+	}
+
+	/**
+	 * Creates a listener which sends the progress of downloads to a status tracker.
+	 *
+	 * @param statusTracker the status tracker
+	 * @return the listener
+	 */
+	public static Connections.DownloadListener downloads(Consumer<InstallStatus> statusTracker) {
+		return new Connections.DownloadListener() {
+			@Override
+			public void started(URI url, long totalBytes) {
+				statusTracker.accept(download(MessageType.DOWNLOAD_STARTED, url, 0, totalBytes, 0, null));
+			}
+
+			@Override
+			public void progress(URI url, long bytes, long totalBytes) {
+				statusTracker.accept(download(MessageType.DOWNLOAD_PROGRESS, url, bytes, totalBytes, 0, null));
+			}
+
+			@Override
+			public void finished(URI url, long bytes) {
+				statusTracker.accept(download(MessageType.DOWNLOAD_FINISHED, url, bytes, bytes, 0, null));
+			}
+
+			@Override
+			public void existing(URI url, long bytes) {
+				statusTracker.accept(download(MessageType.DOWNLOAD_EXISTING, url, bytes, bytes, 0, null));
+			}
+
+			@Override
+			public void retrying(URI url, int attempt, IOException cause) {
+				statusTracker.accept(download(MessageType.DOWNLOAD_RETRY, url, -1, -1, attempt, String.valueOf(cause)));
+			}
+		};
+	}
+
+	private static InstallStatus download(MessageType type, URI url, long bytes, long totalBytes, int attempt, @Nullable String message) {
+		return new InstallStatus(type, Instant.now(), null, url, bytes, totalBytes, attempt, message, null);
+	}
+
+	/**
+	 * @return this update as a json object, without the fields which do not apply to its type
+	 */
+	public JsonObject toJson() {
+		JsonObject json = new JsonObject();
+		json.addProperty("time", this.time.toString());
+		json.addProperty("type", this.type.name().toLowerCase(Locale.ROOT));
+
+		if (this.target != null) {
+			json.addProperty("target", this.target);
+		}
+
+		if (this.phase != null) {
+			json.addProperty("phase", this.phase);
+		}
+
+		if (this.url != null) {
+			json.addProperty("url", this.url.toString());
+		}
+
+		if (this.bytes >= 0) {
+			json.addProperty("bytes", this.bytes);
+		}
+
+		if (this.totalBytes >= 0) {
+			json.addProperty("totalBytes", this.totalBytes);
+		}
+
+		if (this.attempt > 0) {
+			json.addProperty("attempt", this.attempt);
+		}
+
+		if (this.message != null) {
+			json.addProperty("message", this.message);
+		}
+
+		return json;
+	}
+
+	public enum MessageType {
+		PHASE_STARTED,
+		PHASE_FINISHED,
+		DOWNLOAD_STARTED,
+		DOWNLOAD_PROGRESS,
+		DOWNLOAD_FINISHED,
+		/**
+		 * A file which did not need to be downloaded, because it already existed with the expected content.
+		 */
+		DOWNLOAD_EXISTING,
+		DOWNLOAD_RETRY,
+		FAILED
+	}
+}
@@ -19,12 +19,12 @@ package org.quiltmc.installer.action;
 import com.google.gson.JsonParseException;
 import org.quiltmc.installer.Localization;
 import org.quiltmc.installer.util.Util;
+import org.quiltmc.installer.util.meta.LoaderVersionIndex;
 import org.quiltmc.installer.util.meta.QuiltMeta;
 import org.quiltmc.installer.util.mojang.MinecraftMeta;
 
 import java.io.UncheckedIOException;
 import java.net.UnknownHostException;
-import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
 import java.util.function.Consumer;
@@ -48,7 +48,7 @@ public final class ListVersions extends Action<Void> {
     public void run(Consumer<Void> statusTracker) {
         CompletableFuture<Void> versionManifest = CompletableFuture.supplyAsync(() -> MinecraftMeta.get(Util.GSON)).thenAccept(this::displayMinecraftVerions).exceptionally(this::handleMinecraftVersionExceptions);
 
-        CompletableFuture<Void> quiltMeta = QuiltMeta.create(QuiltMeta.LOADER_VERSIONS_ENDPOINT).thenAccept(this::displayLoaderVersions).exceptionally(e -> {
+        CompletableFuture<Void> quiltMeta = QuiltMeta.fetch(QuiltMeta.LOADER_VERSIONS_ENDPOINT).getEndpointAsync(QuiltMeta.LOADER_VERSIONS_ENDPOINT).thenAccept(this::displayLoaderVersions).exceptionally(e -> {
             e.printStackTrace();
             return null;
         });
@@ -67,12 +67,11 @@ public final class ListVersions extends Action<Void> {
 	}
     }
 
-    private void displayLoaderVersions(QuiltMeta meta) {
-        List<String> endpoint = meta.getEndpoint(QuiltMeta.LOADER_VERSIONS_ENDPOINT);
-        println(Localization.createFrom("cli.latest.loader.release", endpoint.stream().filter(version -> !version.contains("-")).findFirst().orElse(null)));
+    private void displayLoaderVersions(LoaderVersionIndex index) {
+        println(Localization.createFrom("cli.latest.loader.release", index.latestStable()));
 
         if (this.loaderBetas) {
-            println(Localization.createFrom("cli.latest.loader.beta", endpoint.stream().filter(version -> version.contains("-")).findFirst().orElse(null)));
+            println(Localization.createFrom("cli.latest.loader.beta", index.latestBeta()));
 	}
     }
 
@@ -96,7 +95,6 @@ public final class ListVersions extends Action<Void> {
             exc.printStackTrace();
         }
 
-        System.exit(2);
-        return null;
+        throw new ActionFailedException(Localization.get("cli.lookup.failed.minecraft"), 2, exc);
     }
 }
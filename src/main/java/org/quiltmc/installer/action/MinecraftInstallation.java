@@ -17,13 +17,17 @@
 package org.quiltmc.installer.action;
 
 import org.jetbrains.annotations.Nullable;
+import org.quiltmc.installer.util.Trace;
+import org.quiltmc.installer.util.meta.LoaderVersion;
+import org.quiltmc.installer.util.meta.LoaderVersionIndex;
 import org.quiltmc.installer.util.meta.QuiltMeta;
-import org.quiltmc.installer.util.Util;
 import org.quiltmc.installer.util.mojang.MinecraftMeta;
 
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 public final class MinecraftInstallation {
 	/**
@@ -35,24 +39,48 @@ public final class MinecraftInstallation {
 	 * @return a future containing the loader version to use
 	 */
 	public static CompletableFuture<InstallationInfo> getInfo(String gameVersion, @Nullable String loaderVersion) {
-		CompletableFuture<MinecraftMeta> versionManifest = CompletableFuture.supplyAsync(() -> MinecraftMeta.get(Util.GSON)).thenApply(manifest -> {
+		return resolve(gameVersion, loaderVersion).info();
+	}
+
+	/**
+	 * Starts resolving the installation info, exposing the predicted loader version before validation has finished.
+	 *
+	 * @param gameVersion the game version
+	 * @param loaderVersion the override for the loader version to use
+	 * @return the resolution
+	 * @see Resolution#speculate(Function)
+	 */
+	public static Resolution resolve(String gameVersion, @Nullable String loaderVersion) {
+		SharedMetadata metadata = SharedMetadata.get();
+
+		return resolve(gameVersion, loaderVersion, metadata.manifest(), metadata.meta());
+	}
+
+	/**
+	 * Starts resolving the installation info against metadata which may be shared with other resolutions, so
+	 * installing several versions only fetches the metadata once.
+	 *
+	 * @param gameVersion the game version
+	 * @param loaderVersion the override for the loader version to use
+	 * @param manifestFuture the game version manifest
+	 * @param meta the Quilt metadata, with the loader and intermediary versions
+	 * @return the resolution
+	 */
+	public static Resolution resolve(String gameVersion, @Nullable String loaderVersion, CompletableFuture<MinecraftMeta> manifestFuture, QuiltMeta meta) {
+		CompletableFuture<MinecraftMeta> versionManifest = manifestFuture.thenApply(manifest -> {
 			if (manifest.getVersion(gameVersion) == null) {
 				throw new IllegalArgumentException(String.format("Minecraft version %s does not exist", gameVersion));
 			}
 			return manifest;
 		});
 
-		CompletableFuture<QuiltMeta> metaFuture = QuiltMeta.create(QuiltMeta.LOADER_VERSIONS_ENDPOINT, QuiltMeta.INTERMEDIARY_VERSIONS_ENDPOINT);
-
 		// Verify we actually have intermediary for the specified version
 		CompletableFuture<Void> intermediary = versionManifest.thenCompose(manifest -> {
             MinecraftMeta.MinecraftVersion mcVersion = manifest.getVersion(gameVersion);
 			assert mcVersion != null; // cannot happen
 
 			if(mcVersion.isObfuscated()) {
-				return metaFuture.thenAccept(meta -> {
-					Map<String, String> intermediaryVersions = meta.getEndpoint(QuiltMeta.INTERMEDIARY_VERSIONS_ENDPOINT);
-
+				return meta.getEndpointAsync(QuiltMeta.INTERMEDIARY_VERSIONS_ENDPOINT).thenAccept(intermediaryVersions -> {
 					if (intermediaryVersions.get(gameVersion) == null) {
 						throw new IllegalArgumentException(String.format("Minecraft version %s exists but has no intermediary", gameVersion));
 					}
@@ -62,15 +90,13 @@ public final class MinecraftInstallation {
 			return CompletableFuture.completedFuture(null);
 		});
 
-		CompletableFuture<String> loaderVersionFuture = metaFuture.thenApply(meta -> {
-			List<String> versions = meta.getEndpoint(QuiltMeta.LOADER_VERSIONS_ENDPOINT);
-
+		CompletableFuture<String> loaderVersionFuture = meta.getEndpointAsync(QuiltMeta.LOADER_VERSIONS_ENDPOINT).thenApply(versions -> {
 			if (loaderVersion != null) {
 				if (!versions.contains(loaderVersion)) {
 					throw new IllegalStateException(String.format("Specified loader version %s was not found", loaderVersion));
 				}
 
-				return versions.get(versions.indexOf(loaderVersion));
+				return loaderVersion;
 			}
 
 			if (versions.isEmpty()) {
@@ -78,20 +104,108 @@ public final class MinecraftInstallation {
 			}
 
 			// Choose latest stable version
-			return versions.stream().filter(version -> !version.contains("-")).findFirst().orElseThrow();
+			return Optional.ofNullable(versions.latestStable()).map(LoaderVersion::raw).orElseThrow(() -> new IllegalStateException("No stable loader versions were found"));
 		});
 
-		return CompletableFuture.allOf(versionManifest, intermediary, loaderVersionFuture).thenApply(_v -> {
+		CompletableFuture<InstallationInfo> info = Trace.async("resolve " + gameVersion, "resolve", CompletableFuture.allOf(versionManifest, intermediary, loaderVersionFuture).thenApply(_v -> {
 			try {
 				return new InstallationInfo(loaderVersionFuture.get(), versionManifest.get());
 			} catch (InterruptedException | ExecutionException e) {
 				throw new RuntimeException(e);
 			}
-		});
+		}));
+
+		return new Resolution(predictLoaderVersion(loaderVersion, loaderVersionFuture), info);
+	}
+
+	/**
+	 * Predicts the loader version without waiting for the loader list, so the work for it can start right away.
+	 *
+	 * <p>An explicitly specified loader version is almost always valid. Otherwise the latest stable version from the
+	 * cached loader list is usually still the latest, and only when nothing has been cached does the prediction wait
+	 * for the loader list.
+	 */
+	private static CompletableFuture<String> predictLoaderVersion(@Nullable String loaderVersion, CompletableFuture<String> loaderVersionFuture) {
+		if (loaderVersion != null) {
+			return CompletableFuture.completedFuture(loaderVersion);
+		}
+
+		LoaderVersionIndex cached = QuiltMeta.LOADER_VERSIONS_ENDPOINT.getCached();
+		LoaderVersion cachedStable = cached != null ? cached.latestStable() : null;
+
+		return cachedStable != null ? CompletableFuture.completedFuture(cachedStable.raw()) : loaderVersionFuture;
 	}
 
 	private MinecraftInstallation() {}
 
+	public static final class Resolution {
+		private final CompletableFuture<String> predictedLoaderVersion;
+		private final CompletableFuture<InstallationInfo> info;
+
+		Resolution(CompletableFuture<String> predictedLoaderVersion, CompletableFuture<InstallationInfo> info) {
+			this.predictedLoaderVersion = predictedLoaderVersion;
+			this.info = info;
+		}
+
+		/**
+		 * @return a future containing the loader version which will most likely be installed, completing before validation has finished
+		 */
+		public CompletableFuture<String> predictedLoaderVersion() {
+			return this.predictedLoaderVersion;
+		}
+
+		/**
+		 * @return a future containing the validated installation info
+		 */
+		public CompletableFuture<InstallationInfo> info() {
+			return this.info;
+		}
+
+		/**
+		 * Starts a task for the predicted loader version while the installation info is still being validated.
+		 *
+		 * <p>If the prediction turns out to be wrong, the speculative result is discarded and the task is run again for
+		 * the resolved loader version. If validation fails, the speculative result is discarded along with it.
+		 *
+		 * @param task the task to run for a loader version
+		 * @return a future containing the result of the task for the resolved loader version
+		 */
+		public <T> CompletableFuture<T> speculate(Function<String, CompletableFuture<T>> task) {
+			return this.speculate(task, Function.identity(), discarded -> {});
+		}
+
+		/**
+		 * Starts a task for the predicted loader version while the installation info is still being validated, keeping
+		 * its effects staged until the prediction has been confirmed.
+		 *
+		 * <p>The staged result is committed once the resolved loader version is known to match the prediction. If the
+		 * prediction turns out to be wrong, the task is staged and committed again for the resolved loader version. A
+		 * staged result which is never committed, because of a wrong prediction or a failed validation, is discarded
+		 * once it completes.
+		 *
+		 * @param stage the task to run for a loader version, which must not have any effects outside of its result
+		 * @param commit applies the staged result once the loader version has been confirmed
+		 * @param discard cleans up a staged result which is not used
+		 * @return a future containing the committed result for the resolved loader version
+		 */
+		public <T, R> CompletableFuture<R> speculate(Function<String, CompletableFuture<T>> stage, Function<T, R> commit, Consumer<T> discard) {
+			CompletableFuture<T> speculative = this.predictedLoaderVersion.thenCompose(stage);
+			CompletableFuture<Boolean> confirmed = this.info.handle((info, e) -> e == null && info.loaderVersion().equals(this.predictedLoaderVersion.getNow(null)));
+
+			// The staged work can't be stopped halfway, so it is cleaned up whenever it finishes
+			speculative.thenAcceptBoth(confirmed, (staged, used) -> {
+				if (!used) {
+					discard.accept(staged);
+				}
+			});
+
+			// A failed validation is passed on by the info future
+			return confirmed.thenCompose(used -> used
+					? speculative.thenApply(commit)
+					: this.info.thenCompose(info -> stage.apply(info.loaderVersion()).thenApply(commit)));
+		}
+	}
+
 	public static final class InstallationInfo {
 		private final String loaderVersion;
 		private final MinecraftMeta manifest;
@@ -0,0 +1,166 @@
+/*
+ * Copyright 2026 QuiltMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.quiltmc.installer.action;
+
+import org.jetbrains.annotations.Nullable;
+import org.quiltmc.installer.Connections;
+import org.quiltmc.installer.util.AtomicFiles;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * What the servers installed together by {@link InstallServers} have in common: each version is resolved once, each
+ * document is fetched once and each file is downloaded once, into a staging directory the servers are then
+ * materialized from.
+ */
+final class ServerBatch implements AutoCloseable {
+	private final Path stagingDir;
+	private final ExecutorService downloadExecutor;
+	private final Connections.DownloadListener downloads;
+	private final Map<String, MinecraftInstallation.Resolution> resolutions = new ConcurrentHashMap<>();
+	private final Map<String, CompletableFuture<?>> shared = new ConcurrentHashMap<>();
+	private final AtomicInteger nextFile = new AtomicInteger();
+
+	/**
+	 * @param stagingDir the directory to download into, which is deleted when the batch is closed
+	 * @param concurrency the number of downloads to run at the same time, across all servers
+	 * @param downloads the listener to report the downloads to, which are not specific to any one server
+	 */
+	ServerBatch(Path stagingDir, int concurrency, Connections.DownloadListener downloads) {
+		this.stagingDir = stagingDir;
+		this.downloads = downloads;
+		this.downloadExecutor = Executors.newFixedThreadPool(concurrency, runnable -> {
+			Thread thread = new Thread(runnable, "Server Batch Download");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	MinecraftInstallation.Resolution resolve(String gameVersion, @Nullable String loaderVersion) {
+		return this.resolutions.computeIfAbsent(gameVersion + ":" + loaderVersion, key -> MinecraftInstallation.resolve(gameVersion, loaderVersion));
+	}
+
+	/**
+	 * Gets a future which is shared by every server asking for the same key.
+	 *
+	 * @param key the key of the value, including everything the value depends on
+	 * @param fetch starts fetching the value, only called for the first server asking for it, or again once a fetch
+	 *              has failed
+	 * @return the future value
+	 */
+	@SuppressWarnings("unchecked")
+	<T> CompletableFuture<T> shared(String key, Supplier<CompletableFuture<T>> fetch) {
+		CompletableFuture<T> future = (CompletableFuture<T>) this.shared.computeIfAbsent(key, k -> fetch.get());
+
+		// Failures are not kept, so one transient error doesn't fail every server asking for the value after it
+		future.whenComplete((value, e) -> {
+			if (e != null) {
+				this.shared.remove(key, future);
+			}
+		});
+
+		return future;
+	}
+
+	/**
+	 * Downloads a file into the staging directory, unless another server has already downloaded it.
+	 *
+	 * @param url the url of the file
+	 * @param sha1 the expected SHA-1 hash of the file, or {@code null} if it is not known
+	 * @return a future of the staged file, which must not be modified
+	 */
+	CompletableFuture<Path> download(URI url, @Nullable String sha1) {
+		return this.shared("download:" + url, () -> {
+			Path staged = this.stagingDir.resolve(Integer.toString(this.nextFile.incrementAndGet()));
+			Action.println("Downloading " + url);
+
+			// Only the first server asking for a file downloads it, the others link the staged file
+			return Connections.download(url, staged, sha1, this.downloads, this.downloadExecutor).thenApply(downloaded -> staged);
+		});
+	}
+
+	/**
+	 * Puts a staged file into a server, as a hard link if possible and as a copy otherwise.
+	 *
+	 * <p>A target which already has the same content is left untouched, it may be shared with other servers or slots,
+	 * and class data sharing archives depend on its modification time.
+	 *
+	 * @param staged the staged file
+	 * @param target the file in the server
+	 */
+	static void materialize(Path staged, Path target) {
+		try {
+			if (Files.isRegularFile(target) && Files.mismatch(staged, target) == -1) {
+				return;
+			}
+
+			Files.createDirectories(target.getParent());
+			Path temp = AtomicFiles.createTempFile(target);
+
+			try {
+				try {
+					Files.delete(temp);
+					Files.createLink(temp, staged);
+				} catch (UnsupportedOperationException | IOException e) {
+					// Different file systems, or links are not supported
+					Files.copy(staged, temp, StandardCopyOption.REPLACE_EXISTING);
+				}
+
+				// Never leave a partially written file where a running server may read it
+				Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} finally {
+				Files.deleteIfExists(temp);
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Deletes a staging directory along with everything in it.
+	 *
+	 * @param stagingDir the staging directory
+	 * @throws IOException if a file could not be deleted
+	 */
+	static void deleteStagingDir(Path stagingDir) throws IOException {
+		try (Stream<Path> walk = Files.walk(stagingDir)) {
+			for (Path path : walk.sorted(Comparator.reverseOrder()).toList()) {
+				Files.deleteIfExists(path);
+			}
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		this.downloadExecutor.shutdownNow();
+		deleteStagingDir(this.stagingDir);
+	}
+}
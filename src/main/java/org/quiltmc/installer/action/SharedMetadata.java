@@ -0,0 +1,76 @@
+/*
+ * Copyright 2026 QuiltMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.quiltmc.installer.action;
+
+import org.quiltmc.installer.util.Trace;
+import org.quiltmc.installer.util.Util;
+import org.quiltmc.installer.util.meta.QuiltMeta;
+import org.quiltmc.installer.util.mojang.MinecraftMeta;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The game version manifest and the Quilt metadata, shared by every install started within a short time.
+ *
+ * <p>A single install fetches them once either way, but a long running installer would otherwise fetch them again for
+ * every install. New versions still show up once the shared metadata is {@linkplain #MAX_AGE old enough}, and
+ * metadata which failed to fetch is fetched again by the next install.
+ */
+public final class SharedMetadata {
+	private static final Duration MAX_AGE = Duration.ofMinutes(5);
+	private static SharedMetadata current;
+
+	private final Instant fetched;
+	private final CompletableFuture<MinecraftMeta> manifest;
+	private final QuiltMeta meta;
+
+	private SharedMetadata(Instant fetched) {
+		this.fetched = fetched;
+		this.manifest = CompletableFuture.supplyAsync(Trace.queued("version manifest", "metadata", () -> MinecraftMeta.get(Util.GSON)));
+		// Each endpoint is consumed as soon as it arrives, so the loader lookup does not wait on intermediary and vice versa
+		this.meta = QuiltMeta.fetch(QuiltMeta.LOADER_VERSIONS_ENDPOINT, QuiltMeta.INTERMEDIARY_VERSIONS_ENDPOINT);
+	}
+
+	/**
+	 * @return the shared metadata, starting to fetch it again if it is too old or failed to fetch
+	 */
+	public static synchronized SharedMetadata get() {
+		Instant now = Instant.now();
+
+		if (current == null || current.fetched.plus(MAX_AGE).isBefore(now) || current.failed()) {
+			current = new SharedMetadata(now);
+		}
+
+		return current;
+	}
+
+	public CompletableFuture<MinecraftMeta> manifest() {
+		return this.manifest;
+	}
+
+	public QuiltMeta meta() {
+		return this.meta;
+	}
+
+	private boolean failed() {
+		return this.manifest.isCompletedExceptionally()
+				|| this.meta.getEndpointAsync(QuiltMeta.LOADER_VERSIONS_ENDPOINT).isCompletedExceptionally()
+				|| this.meta.getEndpointAsync(QuiltMeta.INTERMEDIARY_VERSIONS_ENDPOINT).isCompletedExceptionally();
+	}
+}
@@ -18,25 +18,22 @@ package org.quiltmc.installer.gui.swing;
 
 import org.jetbrains.annotations.Nullable;
 import org.quiltmc.installer.Localization;
+import org.quiltmc.installer.util.meta.LoaderVersionIndex;
 import org.quiltmc.installer.util.modrinth.v2.ModrinthApiV2;
-import org.quiltmc.installer.util.mojang.MinecraftMeta;
 
 import javax.swing.*;
 import javax.swing.event.HyperlinkEvent;
 import java.awt.*;
 import java.io.File;
-import java.util.Collection;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
 
 abstract class AbstractPanel extends JPanel {
 	final SwingInstaller gui;
 	@Nullable
-	private MinecraftMeta manifest;
+	private InstallableVersions gameVersions;
 	@Nullable
-	private List<String> loaderVersions;
-	@Nullable
-	private Collection<String> intermediaryVersions;
+	private LoaderVersionIndex loaderVersions;
 
 	AbstractPanel(SwingInstaller gui) {
 		this.gui = gui;
@@ -50,44 +47,40 @@ abstract class AbstractPanel extends JPanel {
 		return rowPanel;
 	}
 
-	void receiveVersions(MinecraftMeta manifest, List<String> loaderVersions, Collection<String> intermediaryVersions) {
-		this.manifest = manifest;
+	void receiveVersions(InstallableVersions gameVersions, LoaderVersionIndex loaderVersions) {
+		this.gameVersions = gameVersions;
 		this.loaderVersions = loaderVersions;
-		this.intermediaryVersions = intermediaryVersions;
 	}
 
 	@Nullable
-	MinecraftMeta manifest() {
-		return this.manifest;
+	InstallableVersions gameVersions() {
+		return this.gameVersions;
 	}
 
 	@Nullable
-	public List<String> loaderVersions() {
+	public LoaderVersionIndex loaderVersions() {
 		return this.loaderVersions;
 	}
 
-	@Nullable
-	public Collection<String> intermediaryVersions() {
-		return this.intermediaryVersions;
-	}
-
-	static void populateMinecraftVersions(JComboBox<String> comboBox, MinecraftMeta manifest, Collection<String> intermediaryVersions, boolean allowSnapshots) {
+	static void populateMinecraftVersions(JComboBox<String> comboBox, InstallableVersions gameVersions, boolean allowSnapshots) {
 		// Set up the combo box for Minecraft version selection
-		comboBox.removeAllItems();
+		setItems(comboBox, gameVersions.get(allowSnapshots));
+	}
 
-		for (var version : manifest) {
-			if (shouldAddVersion(version, intermediaryVersions, allowSnapshots)) comboBox.addItem(version.id());
-		}
-		comboBox.setEnabled(true);
+	static void populateLoaderVersions(JComboBox<String> comboBox, LoaderVersionIndex loaderVersions, boolean betas) {
+		setItems(comboBox, loaderVersions.installable(betas));
 	}
 
-	static void populateLoaderVersions(JComboBox<String> comboBox, List<String> loaderVersions, boolean betas) {
-		comboBox.removeAllItems();
+	private static void setItems(JComboBox<String> comboBox, List<String> items) {
+		Object selected = comboBox.isEnabled() ? comboBox.getSelectedItem() : null;
+		DefaultComboBoxModel<String> model = new DefaultComboBoxModel<>(items.toArray(String[]::new));
+		comboBox.setModel(model);
 
-		for (String loaderVersion : loaderVersions) {
-			if (betas || !loaderVersion.contains("-")) {
-				comboBox.addItem(loaderVersion);
-			}
+		// Keep the selection when the versions are refreshed or filtered
+		if (selected != null && model.getIndexOf(selected) >= 0) {
+			comboBox.setSelectedItem(selected);
+		} else if (!items.isEmpty()) {
+			comboBox.setSelectedIndex(0);
 		}
 
 		comboBox.setEnabled(true);
@@ -186,13 +179,4 @@ abstract class AbstractPanel extends JPanel {
 		JOptionPane.showMessageDialog(parent, throwable.toString(), "Error!", JOptionPane.ERROR_MESSAGE);
 		throwable.printStackTrace();
 	}
-
-	private static boolean shouldAddVersion(MinecraftMeta.MinecraftVersion version, Collection<String> intermediaryVersions, boolean allowSnapshots) {
-		if(!intermediaryVersions.contains(version.id()) && version.isObfuscated()) return false;
-
-		boolean isRelease = version.type().equals(MinecraftMeta.MinecraftVersion.TYPE_RELEASE);
-		boolean isSnapshot = version.type().equals(MinecraftMeta.MinecraftVersion.TYPE_SNAPSHOT);
-
-		return isRelease || (allowSnapshots && isSnapshot);
-	}
 }
@@ -20,18 +20,16 @@ import org.jetbrains.annotations.Nullable;
 import org.quiltmc.installer.Localization;
 import org.quiltmc.installer.OsPaths;
 import org.quiltmc.installer.action.Action;
-import org.quiltmc.installer.action.InstallClient;
-import org.quiltmc.installer.util.mojang.MinecraftMeta;
+import org.quiltmc.installer.action.InstallStatus;
+import org.quiltmc.installer.util.meta.LoaderVersionIndex;
 
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ItemEvent;
-import java.util.Collection;
-import java.util.List;
 import java.util.function.Consumer;
 
-final class ClientPanel extends AbstractPanel implements Consumer<InstallClient.MessageType> {
+final class ClientPanel extends AbstractPanel implements Consumer<InstallStatus> {
 	private final JComboBox<String> minecraftVersionSelector;
 	private final JComboBox<String> loaderVersionSelector;
 	private final JCheckBox showSnapshotsCheckBox;
@@ -62,9 +60,9 @@ final class ClientPanel extends AbstractPanel implements Consumer<InstallClient.
 			this.showSnapshotsCheckBox.setEnabled(false);
 			this.showSnapshotsCheckBox.addItemListener(e -> {
 				// Versions are already loaded, repopulate the combo box
-				if (this.manifest() != null) {
+				if (this.gameVersions() != null) {
 					this.showSnapshots = e.getStateChange() == ItemEvent.SELECTED;
-					populateMinecraftVersions(this.minecraftVersionSelector, this.manifest(), this.intermediaryVersions(), this.showSnapshots);
+					populateMinecraftVersions(this.minecraftVersionSelector, this.gameVersions(), this.showSnapshots);
 				}
 			});
 		}
@@ -134,7 +132,7 @@ final class ClientPanel extends AbstractPanel implements Consumer<InstallClient.
 
 	private void install(ActionEvent event) {
 		var mcVersion = (String) this.minecraftVersionSelector.getSelectedItem();
-		Action<InstallClient.MessageType> action = Action.installClient(
+		Action<InstallStatus> action = Action.installClient(
 				mcVersion,
 				(String) this.loaderVersionSelector.getSelectedItem(),
 				this.installLocation.getText(),
@@ -147,10 +145,10 @@ final class ClientPanel extends AbstractPanel implements Consumer<InstallClient.
 	}
 
 	@Override
-	void receiveVersions(MinecraftMeta manifest, List<String> loaderVersions, Collection<String> intermediaryVersions) {
-		super.receiveVersions(manifest, loaderVersions, intermediaryVersions);
+	void receiveVersions(InstallableVersions gameVersions, LoaderVersionIndex loaderVersions) {
+		super.receiveVersions(gameVersions, loaderVersions);
 
-		populateMinecraftVersions(this.minecraftVersionSelector, manifest, intermediaryVersions, this.showSnapshots);
+		populateMinecraftVersions(this.minecraftVersionSelector, gameVersions, this.showSnapshots);
 		this.showSnapshotsCheckBox.setEnabled(true);
 		populateLoaderVersions(this.loaderVersionSelector, loaderVersions, this.showLoaderBetas);
 		this.showLoaderBetasCheckBox.setEnabled(true);
@@ -160,5 +158,5 @@ final class ClientPanel extends AbstractPanel implements Consumer<InstallClient.
 	}
 
 	@Override
-	public void accept(InstallClient.MessageType messageType) {}
+	public void accept(InstallStatus status) {}
 }
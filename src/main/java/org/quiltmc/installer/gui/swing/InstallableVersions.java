@@ -0,0 +1,77 @@
+/*
+ * Copyright 2026 QuiltMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.quiltmc.installer.gui.swing;
+
+import org.quiltmc.installer.util.mojang.MinecraftMeta;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The Minecraft versions which can be installed, joined with intermediary availability once when the versions are received.
+ */
+final class InstallableVersions {
+	private final List<String> releases;
+	private final List<String> withSnapshots;
+
+	private InstallableVersions(List<String> releases, List<String> withSnapshots) {
+		this.releases = releases;
+		this.withSnapshots = withSnapshots;
+	}
+
+	/**
+	 * @param manifest the version manifest
+	 * @param intermediaryVersions the intermediary versions, keyed by game version
+	 * @return the installable versions, in manifest order
+	 */
+	static InstallableVersions of(MinecraftMeta manifest, Map<String, String> intermediaryVersions) {
+		List<String> releases = new ArrayList<>();
+		List<String> withSnapshots = new ArrayList<>();
+
+		for (var version : manifest) {
+			// Obfuscated versions can only be installed if intermediary exists
+			if (version.isObfuscated() && !intermediaryVersions.containsKey(version.id())) continue;
+
+			if (version.isRelease()) {
+				releases.add(version.id());
+				withSnapshots.add(version.id());
+			} else if (version.isSnapshot()) {
+				withSnapshots.add(version.id());
+			}
+		}
+
+		return new InstallableVersions(Collections.unmodifiableList(releases), Collections.unmodifiableList(withSnapshots));
+	}
+
+	List<String> get(boolean snapshots) {
+		return snapshots ? this.withSnapshots : this.releases;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) return true;
+		if (!(o instanceof InstallableVersions other)) return false;
+		return this.withSnapshots.equals(other.withSnapshots) && this.releases.equals(other.releases);
+	}
+
+	@Override
+	public int hashCode() {
+		return this.withSnapshots.hashCode();
+	}
+}
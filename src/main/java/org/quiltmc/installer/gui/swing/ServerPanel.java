@@ -20,23 +20,23 @@ import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
 import org.jetbrains.annotations.Nullable;
 import org.quiltmc.installer.Localization;
+import org.quiltmc.installer.ServerScripts;
 import org.quiltmc.installer.action.Action;
 import org.quiltmc.installer.action.InstallServer;
+import org.quiltmc.installer.action.InstallStatus;
 import org.quiltmc.installer.util.Util;
-import org.quiltmc.installer.util.mojang.MinecraftMeta;
+import org.quiltmc.installer.util.meta.LoaderVersionIndex;
 
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ItemEvent;
 import java.nio.file.*;
-import java.util.Collection;
-import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.function.Consumer;
 
-final class ServerPanel extends AbstractPanel implements Consumer<InstallServer.MessageType> {
+final class ServerPanel extends AbstractPanel implements Consumer<InstallStatus> {
 	private final JComboBox<String> minecraftVersionSelector;
 	private final JComboBox<String> loaderVersionSelector;
 	private final JCheckBox showSnapshotsCheckBox;
@@ -73,9 +73,9 @@ final class ServerPanel extends AbstractPanel implements Consumer<InstallServer.
 			this.showSnapshotsCheckBox.setEnabled(false);
 			this.showSnapshotsCheckBox.addItemListener(e -> {
 				// Versions are already loaded, repopulate the combo box
-				if (this.manifest() != null) {
+				if (this.gameVersions() != null) {
 					this.showSnapshots = e.getStateChange() == ItemEvent.SELECTED;
-					populateMinecraftVersions(this.minecraftVersionSelector, this.manifest(), this.intermediaryVersions(), this.showSnapshots);
+					populateMinecraftVersions(this.minecraftVersionSelector, this.gameVersions(), this.showSnapshots);
 				}
 			});
 		}
@@ -136,8 +136,6 @@ final class ServerPanel extends AbstractPanel implements Consumer<InstallServer.
 			generateLaunchScriptsButton.addItemListener(e -> {
 				this.generateLaunchScripts = e.getStateChange() == ItemEvent.SELECTED;
 			});
-			generateLaunchScriptsButton.setToolTipText("Coming soon!");
-			generateLaunchScriptsButton.setEnabled(false);
 		}
 
 		// Install button
@@ -147,14 +145,15 @@ final class ServerPanel extends AbstractPanel implements Consumer<InstallServer.
 			row5.add(this.installButton = new JButton());
 			this.installButton.setEnabled(false);
 			this.installButton.setText(Localization.get("gui.install.loading"));
+			this.installButton.addActionListener(this::install);
 		}
 	}
 
 	@Override
-	void receiveVersions(MinecraftMeta manifest, List<String> loaderVersions, Collection<String> intermediaryVersions) {
-		super.receiveVersions(manifest, loaderVersions, intermediaryVersions);
+	void receiveVersions(InstallableVersions gameVersions, LoaderVersionIndex loaderVersions) {
+		super.receiveVersions(gameVersions, loaderVersions);
 
-		populateMinecraftVersions(this.minecraftVersionSelector, manifest, intermediaryVersions, this.showSnapshots);
+		populateMinecraftVersions(this.minecraftVersionSelector, gameVersions, this.showSnapshots);
 		updateFlags();
 		this.showSnapshotsCheckBox.setEnabled(true);
 		populateLoaderVersions(this.loaderVersionSelector, loaderVersions, this.showLoaderBetas);
@@ -162,7 +161,6 @@ final class ServerPanel extends AbstractPanel implements Consumer<InstallServer.
 
 		this.installButton.setText(Localization.get("gui.install"));
 		this.installButton.setEnabled(true);
-		this.installButton.addActionListener(this::install);
 	}
 
 	private void install(ActionEvent event) {
@@ -170,18 +168,17 @@ final class ServerPanel extends AbstractPanel implements Consumer<InstallServer.
 		String jarType = null;
 		final String rb = "dialog.install.server.";
 
-		if (downloadServer && !downloadServer) {
+		if (downloadServer && !downloadServerAutoSelected) {
 			jarType = "overwrite-jar";
 		} else if (!downloadServer && downloadServerAutoSelected) {
 			jarType = "no-jar";
 		}
 
 		if (jarType != null) {
-			cancel = !AbstractPanel.showPopup(Localization.get(rb + jarType), Localization.get(rb + ".description"), JOptionPane.YES_NO_OPTION, JOptionPane.WARNING_MESSAGE);
+			cancel = !AbstractPanel.showPopup(Localization.get(rb + jarType), Localization.get(rb + jarType + ".description"), JOptionPane.YES_NO_OPTION, JOptionPane.WARNING_MESSAGE);
 		}
 
-		// TODO: Re-enable once scripts are implemented
-		/*String scriptType = null;
+		String scriptType = null;
 
 		if (generateLaunchScripts && !generateLaunchScriptsAutoSelected) {
 			scriptType = "overwrite-script";
@@ -190,9 +187,8 @@ final class ServerPanel extends AbstractPanel implements Consumer<InstallServer.
 		}
 
 		if (scriptType != null) {
-			cancel = cancel | !AbstractPanel.showPopup(Localization.get(rb + scriptType), Localization.get(rb + scriptType + ".desctiption"), JOptionPane.YES_NO_OPTION, JOptionPane.WARNING_MESSAGE);
+			cancel = cancel | !AbstractPanel.showPopup(Localization.get(rb + scriptType), Localization.get(rb + scriptType + ".description"), JOptionPane.YES_NO_OPTION, JOptionPane.WARNING_MESSAGE);
 		}
-		*/
 
 		if (cancel) return;
 
@@ -235,10 +231,14 @@ final class ServerPanel extends AbstractPanel implements Consumer<InstallServer.
 			this.downloadServerAutoSelected = selected;
 		}, SwingUtilities::invokeLater);
 
-		// TODO detect install script
+		CompletableFuture.supplyAsync(() -> ServerScripts.exists(Paths.get(this.installLocation.getText()))).thenAcceptAsync(exists -> {
+			// Don't overwrite scripts that may have been customized unless asked to
+			this.generateLaunchScriptsButton.setSelected(!exists);
+			this.generateLaunchScriptsAutoSelected = !exists;
+		}, SwingUtilities::invokeLater);
 	}
 
 	@Override
-	public void accept(InstallServer.MessageType messageType) {
+	public void accept(InstallStatus status) {
 	}
 }
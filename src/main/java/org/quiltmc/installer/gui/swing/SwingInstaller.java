@@ -17,21 +17,22 @@
 package org.quiltmc.installer.gui.swing;
 
 import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.jetbrains.annotations.Nullable;
 import org.quiltmc.installer.Localization;
+import org.quiltmc.installer.util.InstallerCache;
 import org.quiltmc.installer.util.Util;
 import org.quiltmc.installer.util.meta.Endpoint;
+import org.quiltmc.installer.util.meta.LoaderVersionIndex;
 import org.quiltmc.installer.util.meta.QuiltMeta;
 import org.quiltmc.installer.util.mojang.MinecraftMeta;
 
 import javax.swing.*;
 import java.awt.*;
 import java.security.Security;
-import java.util.Collection;
-import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
-import java.util.stream.Collectors;
 
 /**
  * The logic side of the swing gui for the installer.
@@ -45,8 +46,14 @@ public final class SwingInstaller extends JFrame {
     public static final Executor SWING_EXECUTOR = SwingUtilities::invokeLater;
     private final ClientPanel clientPanel;
     private final ServerPanel serverPanel;
+    @Nullable
+    private Versions versions;
+    private boolean refreshed;
 
     public static void run() {
+        // The versions of the last run are shown while they are fetched again
+        InstallerCache.enableMetadata();
+
         try {
             UIManager.setLookAndFeel(UIManager.getSystemLookAndFeelClassName());
         } catch (ClassNotFoundException | UnsupportedLookAndFeelException | IllegalAccessException |
@@ -64,19 +71,31 @@ public final class SwingInstaller extends JFrame {
             contentPane.addTab(Localization.get("tab.client"), null, this.clientPanel = new ClientPanel(this), Localization.get("tab.client.tooltip"));
             contentPane.addTab(Localization.get("tab.server"), null, this.serverPanel = new ServerPanel(this), Localization.get("tab.server.tooltip"));
 
+            // Show the versions from the last run straight away, if there are any
+            CompletableFuture.supplyAsync(SwingInstaller::getCachedVersions).thenAcceptAsync(versions -> {
+                if (versions != null) {
+                    this.receiveVersions(versions, false);
+                }
+            }, SWING_EXECUTOR);
+
             // Start version lookup before we show the window
             // Lookup loader and intermediary
             Set<Endpoint<?>> endpoints = Set.of(QuiltMeta.LOADER_VERSIONS_ENDPOINT, QuiltMeta.INTERMEDIARY_VERSIONS_ENDPOINT);
 
-            QuiltMeta.create(endpoints).thenAcceptBothAsync(CompletableFuture.supplyAsync(() -> MinecraftMeta.get(Util.GSON)), ((quiltMeta, manifest) -> {
-                List<String> loaderVersions = quiltMeta.getEndpoint(QuiltMeta.LOADER_VERSIONS_ENDPOINT).stream().filter(Util::isValidLoaderVersion).collect(Collectors.toList());
-                Collection<String> intermediaryVersions = quiltMeta.getEndpoint(QuiltMeta.INTERMEDIARY_VERSIONS_ENDPOINT).keySet();
+            QuiltMeta.create(endpoints).thenCombine(CompletableFuture.supplyAsync(() -> MinecraftMeta.get(Util.GSON)), (quiltMeta, manifest) -> {
+                LoaderVersionIndex loaderVersions = quiltMeta.getEndpoint(QuiltMeta.LOADER_VERSIONS_ENDPOINT);
+                Map<String, String> intermediaryVersions = quiltMeta.getEndpoint(QuiltMeta.INTERMEDIARY_VERSIONS_ENDPOINT);
 
-                this.clientPanel.receiveVersions(manifest, loaderVersions, intermediaryVersions);
-                this.serverPanel.receiveVersions(manifest, loaderVersions, intermediaryVersions);
-            }), SWING_EXECUTOR).exceptionally(e -> {
+                return new Versions(InstallableVersions.of(manifest, intermediaryVersions), loaderVersions);
+            }).thenAcceptAsync(versions -> this.receiveVersions(versions, true), SWING_EXECUTOR).exceptionally(e -> {
                 e.printStackTrace();
-                AbstractPanel.displayError(this, e);
+
+                SwingUtilities.invokeLater(() -> {
+                    // We can keep working with the cached versions while offline
+                    if (this.versions == null) {
+                        AbstractPanel.displayError(this, e);
+                    }
+                });
                 return null;
             });
 
@@ -97,4 +116,37 @@ public final class SwingInstaller extends JFrame {
             throw new IllegalStateException(); // Make javac happy
         }
     }
+
+    @Nullable
+    private static Versions getCachedVersions() {
+        MinecraftMeta manifest = MinecraftMeta.getCached(Util.GSON);
+        LoaderVersionIndex loaderVersions = QuiltMeta.LOADER_VERSIONS_ENDPOINT.getCached();
+        Map<String, String> intermediaryVersions = QuiltMeta.INTERMEDIARY_VERSIONS_ENDPOINT.getCached();
+
+        if (manifest == null || loaderVersions == null || intermediaryVersions == null) {
+            return null;
+        }
+
+        return new Versions(InstallableVersions.of(manifest, intermediaryVersions), loaderVersions);
+    }
+
+    private void receiveVersions(Versions versions, boolean fresh) {
+        // Reading the cache could have been slower than the network, never replace fresh versions with cached ones
+        if (!fresh && this.refreshed) {
+            return;
+        }
+
+        this.refreshed |= fresh;
+
+        // Only touch the selectors if something changed since the cached versions were shown
+        if (versions.equals(this.versions)) {
+            return;
+        }
+
+        this.versions = versions;
+        this.clientPanel.receiveVersions(versions.gameVersions(), versions.loaderVersions());
+        this.serverPanel.receiveVersions(versions.gameVersions(), versions.loaderVersions());
+    }
+
+    private record Versions(InstallableVersions gameVersions, LoaderVersionIndex loaderVersions) {}
 }
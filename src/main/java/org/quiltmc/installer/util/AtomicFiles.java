@@ -0,0 +1,119 @@
+/*
+ * Copyright 2026 QuiltMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.quiltmc.installer.util;
+
+import java.io.IOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Writes files by writing next to them and moving over them, so a crash or a concurrent reader never sees a partially
+ * written file.
+ */
+public final class AtomicFiles {
+	/**
+	 * Creates an empty file next to a target, to be written and then {@linkplain #replace(Path, Path) moved over it}.
+	 *
+	 * <p>Unlike {@link Files#createTempFile(Path, String, String)}, which only lets the owner read the file, the file
+	 * gets the permissions of the target, or those of any new file if the target does not exist yet. Installed files
+	 * are often read by another user than the one who installed them, such as the service account of a server.
+	 *
+	 * @param target the file which will be replaced
+	 * @return the empty file
+	 * @throws IOException if the file could not be created
+	 */
+	public static Path createTempFile(Path target) throws IOException {
+		Path dir = target.toAbsolutePath().getParent();
+
+		while (true) {
+			Path temp = dir.resolve(target.getFileName() + "." + Long.toUnsignedString(ThreadLocalRandom.current().nextLong(), 36) + ".tmp");
+
+			try {
+				Files.createFile(temp);
+			} catch (FileAlreadyExistsException e) {
+				continue;
+			}
+
+			PosixFileAttributeView view = Files.getFileAttributeView(temp, PosixFileAttributeView.class);
+
+			if (view != null && Files.exists(target)) {
+				try {
+					view.setPermissions(Files.getPosixFilePermissions(target));
+				} catch (IOException e) {
+					Files.deleteIfExists(temp);
+					throw e;
+				}
+			}
+
+			return temp;
+		}
+	}
+
+	/**
+	 * Moves a file written next to a target over the target.
+	 *
+	 * @param temp the written file
+	 * @param target the file to replace
+	 * @throws IOException if the file could not be moved
+	 */
+	public static void replace(Path temp, Path target) throws IOException {
+		Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+	 * Moves a file written next to a target over the target, unless the target already has the same content, in which
+	 * case the target is left untouched and keeps its modification time.
+	 *
+	 * @param temp the written file, which is deleted if it is not moved
+	 * @param target the file to replace
+	 * @return whether the target was replaced
+	 * @throws IOException if the files could not be compared or moved
+	 */
+	public static boolean replaceIfChanged(Path temp, Path target) throws IOException {
+		if (Files.isRegularFile(target) && Files.mismatch(temp, target) == -1) {
+			Files.delete(temp);
+			return false;
+		}
+
+		replace(temp, target);
+		return true;
+	}
+
+	/**
+	 * Replaces the content of a file.
+	 *
+	 * @param target the file
+	 * @param content the new content
+	 * @throws IOException if the file could not be written
+	 */
+	public static void write(Path target, byte[] content) throws IOException {
+		Path temp = createTempFile(target);
+
+		try {
+			Files.write(temp, content);
+			replace(temp, target);
+		} finally {
+			Files.deleteIfExists(temp);
+		}
+	}
+
+	private AtomicFiles() {}
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright 2026 QuiltMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.quiltmc.installer.util;
+
+import org.jetbrains.annotations.Nullable;
+import org.quiltmc.installer.OsPaths;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * A best-effort cache of downloaded documents, kept in the {@linkplain OsPaths#getCacheDir() installer cache directory}.
+ */
+public final class InstallerCache {
+	private static final Path DIRECTORY = OsPaths.getCacheDir();
+	private static final String HASH_SUFFIX = ".sha256";
+	private static volatile boolean metadataEnabled;
+
+	public static Path directory() {
+		return DIRECTORY;
+	}
+
+	/**
+	 * Creates a cache key for a document downloaded from a url.
+	 *
+	 * @param category the category of document
+	 * @param url the url
+	 * @return the cache key
+	 */
+	public static String keyFor(String category, URI url) {
+		return category + "/" + sanitize(url.getHost() + url.getPath()) + ".json";
+	}
+
+	/**
+	 * Reads a cached document.
+	 *
+	 * @param key the cache key
+	 * @return the document, or null if it has not been cached or could not be read
+	 */
+	@Nullable
+	public static String read(String key) {
+		Path path = DIRECTORY.resolve(key);
+
+		try {
+			return Files.exists(path) ? Files.readString(path, StandardCharsets.UTF_8) : null;
+		} catch (IOException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Writes a document to the cache, replacing any previous document atomically.
+	 *
+	 * @param key the cache key
+	 * @param content the document
+	 * @throws IOException if the document could not be written
+	 */
+	public static void write(String key, String content) throws IOException {
+		Path path = DIRECTORY.resolve(key);
+		Files.createDirectories(path.getParent());
+
+		Path temp = Files.createTempFile(path.getParent(), path.getFileName().toString(), ".tmp");
+
+		try {
+			Files.writeString(temp, content, StandardCharsets.UTF_8);
+			Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} finally {
+			Files.deleteIfExists(temp);
+		}
+	}
+
+	/**
+	 * Keeps fetched metadata in the cache from now on, so it can be shown or used before it has been fetched again.
+	 * Only the installers which read the cached metadata enable this, so installs on a machine with a read-only or
+	 * shared home directory don't write it for nothing.
+	 */
+	public static void enableMetadata() {
+		metadataEnabled = true;
+	}
+
+	/**
+	 * Writes fetched metadata to the cache if {@linkplain #enableMetadata() enabled}, ignoring any failure since the
+	 * cache is best-effort.
+	 *
+	 * @param key the cache key
+	 * @param content the metadata
+	 */
+	public static void writeMetadata(String key, String content) {
+		if (!metadataEnabled) {
+			return;
+		}
+
+		try {
+			write(key, content);
+		} catch (IOException ignored) {
+			// The cache is best-effort
+		}
+	}
+
+	/**
+	 * Reads a document written with {@link #writeHashed(String, String)}, verifying it against its stored hash.
+	 *
+	 * @param key the cache key
+	 * @return the document, or null if it has not been cached, could not be read or does not match its hash
+	 */
+	@Nullable
+	public static String readHashed(String key) {
+		String content = read(key);
+		String hash = read(key + HASH_SUFFIX);
+
+		if (content == null || hash == null || !hash.equals(sha256(content))) {
+			return null;
+		}
+
+		return content;
+	}
+
+	/**
+	 * Writes a document to the cache together with its SHA-256, so a truncated or modified document is never read back.
+	 *
+	 * @param key the cache key
+	 * @param content the document
+	 * @throws IOException if the document could not be written
+	 */
+	public static void writeHashed(String key, String content) throws IOException {
+		write(key, content);
+		write(key + HASH_SUFFIX, sha256(content));
+	}
+
+	private static String sha256(String content) {
+		try {
+			return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content.getBytes(StandardCharsets.UTF_8)));
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 is always available", e);
+		}
+	}
+
+	private static String sanitize(String path) {
+		StringBuilder builder = new StringBuilder(path.length());
+
+		for (int i = 0; i < path.length(); i++) {
+			char c = path.charAt(i);
+			boolean safe = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '.' || c == '-' || c == '/';
+
+			// Never allow walking out of the cache directory
+			builder.append(safe && !(c == '.' && i > 0 && path.charAt(i - 1) == '.') ? c : '_');
+		}
+
+		return builder.toString();
+	}
+
+	private InstallerCache() {}
+}
@@ -0,0 +1,236 @@
+/*
+ * Copyright 2026 QuiltMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.quiltmc.installer.util;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+/**
+ * Helpers for installs which produce the same bytes every time they are run with the same inputs, so container layers
+ * and artifact caches can dedupe them.
+ */
+public final class Reproducible {
+	/**
+	 * The name of the file the digest of an install is written to.
+	 */
+	public static final String DIGEST_FILE = "quilt-install.sha256";
+
+	/**
+	 * The time used for every timestamp, the earliest time a zip entry can represent.
+	 */
+	public static final Instant FIXED_TIME = Instant.parse("1980-02-01T00:00:00Z");
+
+	/**
+	 * Zip entries store local time, so the fixed time has to be converted to the same local fields in every time zone.
+	 *
+	 * @return the time to set zip entries to, in the format of {@link java.util.zip.ZipEntry#setTime(long)}
+	 */
+	public static long zipEntryTime() {
+		return LocalDateTime.of(1980, 2, 1, 0, 0).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+	}
+
+	/**
+	 * Creates a copy of a json element with the members of every object sorted by name.
+	 *
+	 * @param element the element
+	 * @return the canonical copy
+	 */
+	public static JsonElement canonical(JsonElement element) {
+		if (element.isJsonObject()) {
+			Map<String, JsonElement> sorted = new TreeMap<>(element.getAsJsonObject().asMap());
+			JsonObject object = new JsonObject();
+
+			for (Map.Entry<String, JsonElement> entry : sorted.entrySet()) {
+				object.add(entry.getKey(), canonical(entry.getValue()));
+			}
+
+			return object;
+		} else if (element.isJsonArray()) {
+			JsonArray array = new JsonArray();
+
+			for (JsonElement child : element.getAsJsonArray()) {
+				array.add(canonical(child));
+			}
+
+			return array;
+		}
+
+		return element;
+	}
+
+	/**
+	 * Resets the modification times of the installed files and computes a digest of them, which is written to
+	 * {@link #DIGEST_FILE} in the root directory.
+	 *
+	 * <p>The digest covers the relative path and content of every file, in path order, so it only depends on what
+	 * was installed. The paths it was computed from are written after it, one per line, so the install can be
+	 * {@linkplain #verify(Path) verified} later.
+	 *
+	 * @param root the root directory of the install
+	 * @param paths the installed files and directories, relative to the root; missing paths are skipped
+	 * @return the hex encoded digest
+	 * @throws IOException if a file could not be read or updated
+	 */
+	public static String finish(Path root, List<String> paths) throws IOException {
+		FileTime fixed = FileTime.from(FIXED_TIME);
+		String digest = digest(root, paths, fixed);
+
+		StringBuilder content = new StringBuilder(digest).append('\n');
+
+		for (String path : paths) {
+			content.append(path.replace('\\', '/')).append('\n');
+		}
+
+		Path digestFile = root.resolve(DIGEST_FILE);
+		writeIfChanged(digestFile, content.toString().getBytes(StandardCharsets.UTF_8));
+		Files.setLastModifiedTime(digestFile, fixed);
+
+		return digest;
+	}
+
+	/**
+	 * Computes the digest of an install again from the paths listed in its {@link #DIGEST_FILE}, without modifying
+	 * anything.
+	 *
+	 * @param root the root directory of the install
+	 * @return the recorded and the computed digest
+	 * @throws IOException if the digest file or an installed file could not be read
+	 */
+	public static Verification verify(Path root) throws IOException {
+		List<String> lines = Files.readAllLines(root.resolve(DIGEST_FILE), StandardCharsets.UTF_8);
+
+		if (lines.isEmpty()) {
+			throw new IOException("Empty digest file in " + root);
+		}
+
+		return new Verification(lines.get(0).trim(), digest(root, lines.subList(1, lines.size()), null));
+	}
+
+	private static String digest(Path root, List<String> paths, @Nullable FileTime resetTime) throws IOException {
+		List<Path> files = new ArrayList<>();
+
+		for (String path : paths) {
+			Path resolved = root.resolve(path);
+
+			if (Files.isDirectory(resolved)) {
+				try (Stream<Path> walk = Files.walk(resolved)) {
+					walk.filter(Files::isRegularFile).forEach(files::add);
+				}
+			} else if (Files.isRegularFile(resolved)) {
+				files.add(resolved);
+			}
+		}
+
+		Map<String, Path> byName = new TreeMap<>();
+
+		for (Path file : files) {
+			byName.put(root.relativize(file).toString().replace('\\', '/'), file);
+		}
+
+		MessageDigest tree = sha256();
+
+		for (Map.Entry<String, Path> entry : byName.entrySet()) {
+			String name = entry.getKey();
+			Path file = entry.getValue();
+
+			if (resetTime != null) {
+				Files.setLastModifiedTime(file, resetTime);
+			}
+
+			tree.update(name.getBytes(StandardCharsets.UTF_8));
+			tree.update((byte) 0);
+			tree.update(HexFormat.of().formatHex(digest(file)).getBytes(StandardCharsets.UTF_8));
+			tree.update((byte) '\n');
+		}
+
+		return HexFormat.of().formatHex(tree.digest());
+	}
+
+	/**
+	 * Writes a file only if its content changes, so reinstalling the same version leaves the file and its modification
+	 * time untouched. A changed file is replaced atomically.
+	 *
+	 * @param file the file
+	 * @param content the new content
+	 * @return whether the file was written
+	 * @throws IOException if the file could not be read or written
+	 */
+	public static boolean writeIfChanged(Path file, byte[] content) throws IOException {
+		if (Files.isRegularFile(file) && Files.size(file) == content.length
+				&& MessageDigest.isEqual(digest(file), sha256().digest(content))) {
+			return false;
+		}
+
+		AtomicFiles.write(file, content);
+		return true;
+	}
+
+	private static byte[] digest(Path file) throws IOException {
+		MessageDigest digest = sha256();
+
+		try (InputStream stream = new DigestInputStream(Files.newInputStream(file), digest)) {
+			stream.transferTo(OutputStream.nullOutputStream());
+		}
+
+		return digest.digest();
+	}
+
+	private static MessageDigest sha256() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 is always available", e);
+		}
+	}
+
+	/**
+	 * The result of {@linkplain #verify(Path) verifying} an install.
+	 *
+	 * @param expected the digest recorded when the install finished
+	 * @param actual the digest of the files as they are now
+	 */
+	public record Verification(String expected, String actual) {
+		public boolean matches() {
+			return this.expected.equals(this.actual);
+		}
+	}
+
+	private Reproducible() {}
+}
@@ -0,0 +1,270 @@
+/*
+ * Copyright 2026 QuiltMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.quiltmc.installer.util;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Records how long each stage of an install takes, to be opened in a trace viewer such as Perfetto or
+ * {@code chrome://tracing}.
+ *
+ * <p>Nothing is recorded unless a trace has been {@linkplain #start() started}. Work which runs on a thread is recorded
+ * as a span on that thread, and the time a task waited for an executor thread to become free is recorded as a separate
+ * span next to them, so a stage which is slow because it was waiting can be told apart from one which is slow itself.
+ * The spans are written in the Chrome trace event format.
+ */
+public final class Trace {
+	@Nullable
+	private static volatile Trace current;
+
+	private final long startNanos = System.nanoTime();
+	private final Queue<JsonObject> events = new ConcurrentLinkedQueue<>();
+	private final Map<Long, String> threads = new ConcurrentHashMap<>();
+	private final AtomicLong nextId = new AtomicLong();
+
+	private Trace() {}
+
+	/**
+	 * Starts recording, discarding anything recorded before.
+	 */
+	public static void start() {
+		current = new Trace();
+	}
+
+	/**
+	 * Stops recording and writes the recorded spans.
+	 *
+	 * @param file the file to write the trace to
+	 * @throws IOException if the trace could not be written
+	 */
+	public static void finish(Path file) throws IOException {
+		Trace trace = current;
+		current = null;
+
+		if (trace == null) {
+			return;
+		}
+
+		JsonArray events = new JsonArray();
+		trace.threads.forEach((id, name) -> {
+			JsonObject args = new JsonObject();
+			args.addProperty("name", name);
+
+			JsonObject event = new JsonObject();
+			event.addProperty("name", "thread_name");
+			event.addProperty("ph", "M");
+			event.addProperty("pid", 1);
+			event.addProperty("tid", id);
+			event.add("args", args);
+			events.add(event);
+		});
+		trace.events.forEach(events::add);
+
+		JsonObject root = new JsonObject();
+		root.add("traceEvents", events);
+		root.addProperty("displayTimeUnit", "ms");
+
+		if (file.getParent() != null) {
+			Files.createDirectories(file.getParent());
+		}
+
+		try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+			Util.GSON.toJson(root, writer);
+		}
+	}
+
+	/**
+	 * Starts a span on the current thread, which ends when it is closed.
+	 *
+	 * @param name the name of the span
+	 * @param category the stage of the install the span belongs to
+	 * @return the span
+	 */
+	public static Span span(String name, String category) {
+		Trace trace = current;
+		return trace == null ? Span.NONE : new Span(trace, name, category, -1);
+	}
+
+	/**
+	 * Wraps a task which is about to be handed to an executor, recording how long it waits to start and how long it
+	 * then runs for.
+	 *
+	 * @param name the name of the task
+	 * @param category the stage of the install the task belongs to
+	 * @param task the task
+	 * @return the wrapped task
+	 */
+	public static <T> Supplier<T> queued(String name, String category, Supplier<T> task) {
+		Trace trace = current;
+
+		if (trace == null) {
+			return task;
+		}
+
+		long id = trace.nextId.incrementAndGet();
+		long queuedAt = System.nanoTime();
+		trace.async("b", name, "queue", id, queuedAt);
+
+		return () -> {
+			long startedAt = System.nanoTime();
+			trace.async("e", name, "queue", id, startedAt);
+
+			Span span = new Span(trace, name, category, startedAt - queuedAt);
+
+			try {
+				return task.get();
+			} finally {
+				span.close();
+			}
+		};
+	}
+
+	/**
+	 * Wraps a task which is about to be handed to an executor, recording how long it waits to start and how long it
+	 * then runs for.
+	 *
+	 * @param name the name of the task
+	 * @param category the stage of the install the task belongs to
+	 * @param task the task
+	 * @return the wrapped task
+	 */
+	public static Runnable queued(String name, String category, Runnable task) {
+		Supplier<Void> wrapped = queued(name, category, () -> {
+			task.run();
+			return null;
+		});
+
+		return wrapped::get;
+	}
+
+	/**
+	 * Records a span from now until a future completes, for a stage made of several tasks on different threads.
+	 *
+	 * @param name the name of the span
+	 * @param category the stage of the install the span belongs to
+	 * @param future the future the stage completes
+	 * @return the future
+	 */
+	public static <T> CompletableFuture<T> async(String name, String category, CompletableFuture<T> future) {
+		Trace trace = current;
+
+		if (trace == null) {
+			return future;
+		}
+
+		long id = trace.nextId.incrementAndGet();
+		trace.async("b", name, category, id, System.nanoTime());
+		future.whenComplete((value, e) -> trace.async("e", name, category, id, System.nanoTime()));
+		return future;
+	}
+
+	private void async(String phase, String name, String category, long id, long nanos) {
+		JsonObject event = this.event(phase, name, category, nanos);
+		event.addProperty("id", id);
+		this.events.add(event);
+	}
+
+	private JsonObject event(String phase, String name, String category, long nanos) {
+		Thread thread = Thread.currentThread();
+		this.threads.putIfAbsent(thread.getId(), thread.getName());
+
+		JsonObject event = new JsonObject();
+		event.addProperty("name", name);
+		event.addProperty("cat", category);
+		event.addProperty("ph", phase);
+		event.addProperty("ts", this.micros(nanos));
+		event.addProperty("pid", 1);
+		event.addProperty("tid", thread.getId());
+		return event;
+	}
+
+	private double micros(long nanos) {
+		return (nanos - this.startNanos) / 1000.0;
+	}
+
+	/**
+	 * A span on a single thread.
+	 */
+	public static final class Span implements AutoCloseable {
+		private static final Span NONE = new Span(null, "", "", -1);
+
+		@Nullable
+		private final Trace trace;
+		private final String name;
+		private final String category;
+		private final long startNanos = System.nanoTime();
+		private final long queuedNanos;
+		private final JsonObject args = new JsonObject();
+
+		private Span(@Nullable Trace trace, String name, String category, long queuedNanos) {
+			this.trace = trace;
+			this.name = name;
+			this.category = category;
+			this.queuedNanos = queuedNanos;
+		}
+
+		/**
+		 * Adds a detail to the span, shown when it is selected in the trace viewer.
+		 *
+		 * @param key the name of the detail
+		 * @param value the value
+		 * @return this span
+		 */
+		public Span arg(String key, Object value) {
+			if (this.trace != null) {
+				this.args.addProperty(key, String.valueOf(value));
+			}
+
+			return this;
+		}
+
+		@Override
+		public void close() {
+			if (this.trace == null) {
+				return;
+			}
+
+			JsonObject event = this.trace.event("X", this.name, this.category, this.startNanos);
+			event.addProperty("dur", (System.nanoTime() - this.startNanos) / 1000.0);
+
+			if (this.queuedNanos >= 0) {
+				this.args.addProperty("queuedMillis", this.queuedNanos / 1_000_000.0);
+			}
+
+			if (this.args.size() > 0) {
+				event.add("args", this.args);
+			}
+
+			this.trace.events.add(event);
+		}
+	}
+}
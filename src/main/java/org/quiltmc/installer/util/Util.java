@@ -34,10 +34,4 @@ public class Util {
     // @formatter:on
 
     public static final DateTimeFormatter MOJANG_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ssxxx").withZone(ZoneOffset.UTC);
-
-    public static boolean isValidLoaderVersion(String version) {
-        // TODO HACK HACK HACK
-        // This is a hack to filter out old versions of Loader which we know will not support finding the main class.
-        return !(version.startsWith("0.16.0-beta.") && version.length() == 13 && version.charAt(12) != '9');
-    }
 }
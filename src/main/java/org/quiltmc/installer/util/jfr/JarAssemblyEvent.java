@@ -0,0 +1,48 @@
+/*
+ * Copyright 2026 QuiltMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.quiltmc.installer.util.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The launch jar of a server being assembled from its libraries.
+ */
+@Name("org.quiltmc.installer.JarAssembly")
+@Label("Jar Assembly")
+@Category({"Quilt Installer", "Server"})
+@StackTrace(false)
+public final class JarAssemblyEvent extends Event {
+	@Label("Path")
+	public String path;
+
+	@Label("Libraries")
+	public int libraries;
+
+	@Label("Merged")
+	@Description("Whether the libraries were copied into the jar instead of being referenced from its class path")
+	public boolean merged;
+
+	@Label("Size")
+	@DataAmount
+	public long bytes;
+}
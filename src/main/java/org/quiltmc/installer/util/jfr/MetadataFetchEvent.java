@@ -0,0 +1,48 @@
+/*
+ * Copyright 2026 QuiltMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.quiltmc.installer.util.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A metadata document fetched from Quilt Meta or Piston Meta, such as a version list or a launch json.
+ */
+@Name("org.quiltmc.installer.MetadataFetch")
+@Label("Metadata Fetch")
+@Category({"Quilt Installer", "Metadata"})
+@StackTrace(false)
+public final class MetadataFetchEvent extends Event {
+	@Label("URL")
+	public String url;
+
+	@Label("Size")
+	@DataAmount
+	public long bytes;
+
+	@Label("Cache Hit")
+	@Description("Whether the document was read from the installer cache instead of being downloaded")
+	public boolean cacheHit;
+
+	@Label("Succeeded")
+	public boolean succeeded;
+}
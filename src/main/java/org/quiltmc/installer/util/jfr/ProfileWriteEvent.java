@@ -0,0 +1,45 @@
+/*
+ * Copyright 2026 QuiltMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.quiltmc.installer.util.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A client profile being written, either the launch json of an installed version or the launcher profiles.
+ */
+@Name("org.quiltmc.installer.ProfileWrite")
+@Label("Profile Write")
+@Category({"Quilt Installer", "Client"})
+@StackTrace(false)
+public final class ProfileWriteEvent extends Event {
+	@Label("Path")
+	public String path;
+
+	@Label("Size")
+	@DataAmount
+	public long bytes;
+
+	@Label("Changed")
+	@Description("Whether the file was written, a launch json which is already up to date is left alone")
+	public boolean changed;
+}
@@ -19,12 +19,18 @@ package org.quiltmc.installer.util.meta;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonParseException;
 import com.google.gson.reflect.TypeToken;
+import org.jetbrains.annotations.Nullable;
 import org.quiltmc.installer.Connections;
+import org.quiltmc.installer.util.InstallerCache;
 import org.quiltmc.installer.util.Util;
+import org.quiltmc.installer.util.jfr.MetadataFetchEvent;
 
 import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
 import java.lang.reflect.Type;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.util.function.Function;
 
 public final class Endpoint<T> {
@@ -54,9 +60,53 @@ public final class Endpoint<T> {
     }
 
     public T get() throws IOException, JsonParseException {
-        try (var reader = Connections.openReader(this.getUrl())) {
-            return deserializer.apply(reader);
+        MetadataFetchEvent event = new MetadataFetchEvent();
+        event.begin();
+        event.url = this.url.toString();
+        StringWriter body = new StringWriter();
+        T value;
+
+        try {
+            try (var reader = Connections.openReader(this.getUrl())) {
+                reader.transferTo(body);
+            }
+
+            value = deserializer.apply(new StringReader(body.toString()));
+            event.succeeded = true;
+        } finally {
+            if (event.shouldCommit()) {
+                event.bytes = body.toString().getBytes(StandardCharsets.UTF_8).length;
+                event.commit();
+            }
         }
+
+        InstallerCache.writeMetadata(this.cacheKey(), body.toString());
+
+        return value;
+    }
+
+    /**
+     * Gets the value of this endpoint from the last successful fetch, which may be out of date.
+     *
+     * @return the cached value, or null if this endpoint has not been cached
+     */
+    @Nullable
+    public T getCached() {
+        String body = InstallerCache.read(this.cacheKey());
+
+        if (body == null) {
+            return null;
+        }
+
+        try {
+            return deserializer.apply(new StringReader(body));
+        } catch (IOException | JsonParseException e) {
+            return null;
+        }
+    }
+
+    private String cacheKey() {
+        return InstallerCache.keyFor("meta", this.url);
     }
 
     public static class Builder<T> {
@@ -0,0 +1,218 @@
+/*
+ * Copyright 2026 QuiltMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.quiltmc.installer.util.meta;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Objects;
+
+/**
+ * A parsed Quilt Loader version, ordered by semantic version precedence.
+ *
+ * <p>Versions are {@code major.minor.patch} with an optional {@code -pre.release} suffix; build metadata after a
+ * {@code +} is kept in {@link #raw()} but ignored for ordering.
+ */
+public final class LoaderVersion implements Comparable<LoaderVersion> {
+	private final String raw;
+	private final int major;
+	private final int minor;
+	private final int patch;
+	@Nullable
+	private final String preRelease;
+	private final String[] preReleaseParts;
+
+	private LoaderVersion(String raw, int major, int minor, int patch, @Nullable String preRelease) {
+		this.raw = raw;
+		this.major = major;
+		this.minor = minor;
+		this.patch = patch;
+		this.preRelease = preRelease;
+		this.preReleaseParts = (preRelease == null || preRelease.isEmpty()) ? new String[0] : preRelease.split("\\.");
+	}
+
+	/**
+	 * Parses a loader version.
+	 *
+	 * @param version the version string
+	 * @return the parsed version, or null if the version is not a semantic version
+	 */
+	@Nullable
+	public static LoaderVersion parse(String version) {
+		String core = version;
+		int build = core.indexOf('+');
+
+		if (build >= 0) {
+			core = core.substring(0, build);
+		}
+
+		String preRelease = null;
+		int dash = core.indexOf('-');
+
+		if (dash >= 0) {
+			preRelease = core.substring(dash + 1);
+			core = core.substring(0, dash);
+
+			if (preRelease.isEmpty()) {
+				return null;
+			}
+		}
+
+		String[] parts = core.split("\\.", -1);
+
+		if (parts.length != 3) {
+			return null;
+		}
+
+		try {
+			return new LoaderVersion(version, parseComponent(parts[0]), parseComponent(parts[1]), parseComponent(parts[2]), preRelease);
+		} catch (NumberFormatException e) {
+			return null;
+		}
+	}
+
+	private static int parseComponent(String component) {
+		if (component.isEmpty() || component.charAt(0) == '+' || component.charAt(0) == '-') {
+			throw new NumberFormatException(component);
+		}
+
+		return Integer.parseInt(component);
+	}
+
+	/**
+	 * Creates the lowest possible version of a {@code major.minor.patch} release line, which sorts before any beta of that line.
+	 * Useful as a bound for range queries.
+	 */
+	static LoaderVersion lowest(int major, int minor, int patch) {
+		return new LoaderVersion(major + "." + minor + "." + patch + "-", major, minor, patch, "");
+	}
+
+	public String raw() {
+		return this.raw;
+	}
+
+	public int major() {
+		return this.major;
+	}
+
+	public int minor() {
+		return this.minor;
+	}
+
+	public int patch() {
+		return this.patch;
+	}
+
+	@Nullable
+	public String preRelease() {
+		return this.preRelease;
+	}
+
+	/**
+	 * @return whether this version is a beta (any pre-release) version
+	 */
+	public boolean isBeta() {
+		return this.preRelease != null;
+	}
+
+	/**
+	 * Old versions of Loader do not support finding the main class, so they cannot be installed.
+	 *
+	 * @return whether this version can be installed
+	 */
+	public boolean isInstallable() {
+		if (this.major != 0 || this.minor != 16 || this.patch != 0 || this.preReleaseParts.length != 2 || !this.preReleaseParts[0].equals("beta")) {
+			return true;
+		}
+
+		// 0.16.0-beta.0 through 0.16.0-beta.8
+		String build = this.preReleaseParts[1];
+		return !(build.length() == 1 && build.charAt(0) != '9');
+	}
+
+	@Override
+	public int compareTo(LoaderVersion o) {
+		int cmp = Integer.compare(this.major, o.major);
+		if (cmp != 0) return cmp;
+
+		cmp = Integer.compare(this.minor, o.minor);
+		if (cmp != 0) return cmp;
+
+		cmp = Integer.compare(this.patch, o.patch);
+		if (cmp != 0) return cmp;
+
+		// A release has higher precedence than any of its pre-releases
+		if (this.preRelease == null || o.preRelease == null) {
+			return this.preRelease == null ? (o.preRelease == null ? 0 : 1) : -1;
+		}
+
+		int length = Math.min(this.preReleaseParts.length, o.preReleaseParts.length);
+
+		for (int i = 0; i < length; i++) {
+			cmp = comparePreReleasePart(this.preReleaseParts[i], o.preReleaseParts[i]);
+			if (cmp != 0) return cmp;
+		}
+
+		return Integer.compare(this.preReleaseParts.length, o.preReleaseParts.length);
+	}
+
+	private static int comparePreReleasePart(String a, String b) {
+		boolean aNumeric = isNumeric(a);
+		boolean bNumeric = isNumeric(b);
+
+		if (aNumeric && bNumeric) {
+			// Compare by length first so arbitrarily long numbers do not overflow
+			int cmp = Integer.compare(a.length(), b.length());
+			return cmp != 0 ? cmp : a.compareTo(b);
+		}
+
+		// Numeric identifiers have lower precedence than alphanumeric ones
+		if (aNumeric) return -1;
+		if (bNumeric) return 1;
+
+		return a.compareTo(b);
+	}
+
+	private static boolean isNumeric(String part) {
+		if (part.isEmpty() || (part.length() > 1 && part.charAt(0) == '0')) {
+			return false;
+		}
+
+		for (int i = 0; i < part.length(); i++) {
+			char c = part.charAt(i);
+			if (c < '0' || c > '9') return false;
+		}
+
+		return true;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) return true;
+		if (!(o instanceof LoaderVersion other)) return false;
+		return this.compareTo(other) == 0;
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(this.major, this.minor, this.patch, this.preRelease);
+	}
+
+	@Override
+	public String toString() {
+		return this.raw;
+	}
+}
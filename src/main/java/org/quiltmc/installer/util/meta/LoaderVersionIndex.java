@@ -0,0 +1,218 @@
+/*
+ * Copyright 2026 QuiltMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.quiltmc.installer.util.meta;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * An index of the loader versions published on meta, built once per fetch of {@link QuiltMeta#LOADER_VERSIONS_ENDPOINT}.
+ *
+ * <p>Membership checks are hashed and range queries are answered from sorted sets, so callers issuing many queries
+ * never rescan the version list.
+ */
+public final class LoaderVersionIndex {
+	private final List<String> versions;
+	private final Map<String, LoaderVersion> parsed;
+	private final NavigableSet<LoaderVersion> all;
+	private final NavigableSet<LoaderVersion> stable;
+	private final NavigableSet<LoaderVersion> betas;
+	private final List<String> installable;
+	private final List<String> installableStable;
+
+	/**
+	 * @param versions the versions in the order meta returned them, newest first
+	 */
+	public LoaderVersionIndex(List<String> versions) {
+		this.versions = List.copyOf(versions);
+		this.parsed = new HashMap<>(versions.size() * 2);
+		this.all = new TreeSet<>();
+		this.stable = new TreeSet<>();
+		this.betas = new TreeSet<>();
+
+		List<String> installable = new ArrayList<>();
+		List<String> installableStable = new ArrayList<>();
+
+		for (String version : this.versions) {
+			LoaderVersion loaderVersion = LoaderVersion.parse(version);
+
+			// Non semantic versions are still members, but can't take part in range queries
+			this.parsed.put(version, loaderVersion);
+
+			if (loaderVersion == null) {
+				installable.add(version);
+				continue;
+			}
+
+			this.all.add(loaderVersion);
+
+			if (loaderVersion.isBeta()) {
+				this.betas.add(loaderVersion);
+			} else {
+				this.stable.add(loaderVersion);
+			}
+
+			if (loaderVersion.isInstallable()) {
+				installable.add(version);
+
+				if (!loaderVersion.isBeta()) {
+					installableStable.add(version);
+				}
+			}
+		}
+
+		this.installable = Collections.unmodifiableList(installable);
+		this.installableStable = Collections.unmodifiableList(installableStable);
+	}
+
+	/**
+	 * @return every version, in the order meta returned them
+	 */
+	public List<String> versions() {
+		return this.versions;
+	}
+
+	/**
+	 * @param betas whether to include beta versions
+	 * @return the installable versions, in the order meta returned them
+	 */
+	public List<String> installable(boolean betas) {
+		return betas ? this.installable : this.installableStable;
+	}
+
+	public boolean isEmpty() {
+		return this.versions.isEmpty();
+	}
+
+	public boolean contains(String version) {
+		return this.parsed.containsKey(version);
+	}
+
+	/**
+	 * @param version the version string
+	 * @return the parsed version, or null if the version is not present or is not a semantic version
+	 */
+	@Nullable
+	public LoaderVersion get(String version) {
+		return this.parsed.get(version);
+	}
+
+	@Nullable
+	public LoaderVersion latestStable() {
+		return this.stable.isEmpty() ? null : this.stable.last();
+	}
+
+	/**
+	 * @return the latest version, beta or not
+	 */
+	@Nullable
+	public LoaderVersion latest() {
+		return this.all.isEmpty() ? null : this.all.last();
+	}
+
+	@Nullable
+	public LoaderVersion latestBeta() {
+		return this.latestBetaNewerThan(null);
+	}
+
+	/**
+	 * Gets the latest version of a {@code major.minor} release line, such as the latest {@code 0.19.x}.
+	 *
+	 * @param major the major version
+	 * @param minor the minor version
+	 * @param betas whether beta versions are acceptable
+	 * @return the latest version of the line, or null if there is none
+	 */
+	@Nullable
+	public LoaderVersion latestInLine(int major, int minor, boolean betas) {
+		LoaderVersion candidate = this.sorted(betas).lower(LoaderVersion.lowest(major, minor + 1, 0));
+
+		return candidate != null && candidate.major() == major && candidate.minor() == minor ? candidate : null;
+	}
+
+	/**
+	 * Gets the latest version that is strictly newer than the specified version.
+	 *
+	 * @param version the exclusive lower bound, or null for no bound
+	 * @param betas whether beta versions are acceptable
+	 * @return the latest newer version, or null if there is none
+	 */
+	@Nullable
+	public LoaderVersion latestNewerThan(@Nullable LoaderVersion version, boolean betas) {
+		NavigableSet<LoaderVersion> set = this.sorted(betas);
+
+		if (set.isEmpty()) {
+			return null;
+		}
+
+		LoaderVersion latest = set.last();
+		return version == null || latest.compareTo(version) > 0 ? latest : null;
+	}
+
+	/**
+	 * Gets the latest beta that is strictly newer than the specified version.
+	 *
+	 * @param version the exclusive lower bound, or null for no bound
+	 * @return the latest newer beta, or null if there is none
+	 */
+	@Nullable
+	public LoaderVersion latestBetaNewerThan(@Nullable LoaderVersion version) {
+		if (this.betas.isEmpty()) {
+			return null;
+		}
+
+		LoaderVersion latest = this.betas.last();
+		return version == null || latest.compareTo(version) > 0 ? latest : null;
+	}
+
+	/**
+	 * Gets the latest version within a range.
+	 *
+	 * @param minimum the inclusive lower bound, or null for no bound
+	 * @param maximum the exclusive upper bound, or null for no bound
+	 * @param betas whether beta versions are acceptable
+	 * @return the latest version within the range, or null if there is none
+	 */
+	@Nullable
+	public LoaderVersion latestInRange(@Nullable LoaderVersion minimum, @Nullable LoaderVersion maximum, boolean betas) {
+		NavigableSet<LoaderVersion> set = this.sorted(betas);
+		LoaderVersion candidate = maximum == null ? (set.isEmpty() ? null : set.last()) : set.lower(maximum);
+
+		if (candidate == null || (minimum != null && candidate.compareTo(minimum) < 0)) {
+			return null;
+		}
+
+		return candidate;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) return true;
+		if (!(o instanceof LoaderVersionIndex other)) return false;
+		return this.versions.equals(other.versions);
+	}
+
+	@Override
+	public int hashCode() {
+		return this.versions.hashCode();
+	}
+
+	private NavigableSet<LoaderVersion> sorted(boolean betas) {
+		return betas ? this.all : this.stable;
+	}
+}
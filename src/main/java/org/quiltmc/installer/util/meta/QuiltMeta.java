@@ -18,6 +18,7 @@ package org.quiltmc.installer.util.meta;
 
 import com.google.gson.JsonSyntaxException;
 import com.google.gson.reflect.TypeToken;
+import org.quiltmc.installer.util.Trace;
 import org.quiltmc.installer.util.meta.model.v3.IntermediaryVersionV3;
 import org.quiltmc.installer.util.meta.model.v3.QuiltLoaderVersionV3;
 
@@ -25,65 +26,109 @@ import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 public final class QuiltMeta {
 	public static final String DEFAULT_META_URL = "https://meta.quiltmc.org";
-	private final Map<Endpoint<?>, Object> endpoints;
+	private final Map<Endpoint<?>, CompletableFuture<?>> endpoints;
 
-	public static final Endpoint<List<String>> LOADER_VERSIONS_ENDPOINT = Endpoint.builder("/v3/versions/loader").withType(new TypeToken<List<QuiltLoaderVersionV3>>(){}).mappedTo(list -> list.stream().map(QuiltLoaderVersionV3::version).toList()).build();
+	/**
+	 * An endpoint for loader versions, indexed once when fetched.
+	 */
+	public static final Endpoint<LoaderVersionIndex> LOADER_VERSIONS_ENDPOINT = Endpoint.builder("/v3/versions/loader").withType(new TypeToken<List<QuiltLoaderVersionV3>>(){}).mappedTo(list -> new LoaderVersionIndex(list.stream().map(QuiltLoaderVersionV3::version).toList())).build();
 
 	/**
 	 * An endpoint for intermediary versions.
 	 *
 	 * <p>The returned map has the version as the key and the maven artifact as the value
 	 */
-	public static final Endpoint<Map<String, String>> INTERMEDIARY_VERSIONS_ENDPOINT = Endpoint.builder("/v3/versions/intermediary").withType(new TypeToken<List<IntermediaryVersionV3>>(){}).mappedTo(list -> list.stream().collect(Collectors.toMap(IntermediaryVersionV3::version, IntermediaryVersionV3::maven))).build();
+	public static final Endpoint<Map<String, String>> INTERMEDIARY_VERSIONS_ENDPOINT = Endpoint.builder("/v3/versions/intermediary").withType(new TypeToken<List<IntermediaryVersionV3>>(){}).<Map<String, String>>mappedTo(list -> list.stream().collect(Collectors.toMap(IntermediaryVersionV3::version, IntermediaryVersionV3::maven, (a, b) -> b, HashMap::new))).build();
 
+	/**
+	 * Starts fetching the specified endpoints and returns once every endpoint has been fetched.
+	 *
+	 * <p>Prefer {@link #fetch(Endpoint[])} and {@link #getEndpointAsync(Endpoint)} when the consumers of each endpoint
+	 * are independent, so that a slow endpoint does not hold back the others.
+	 *
+	 * @param endpoints the endpoints to fetch
+	 * @return a future which completes once all endpoints have been fetched
+	 */
 	public static CompletableFuture<QuiltMeta> create(Endpoint<?>... endpoints) {
 		return create(Set.of(endpoints));
 	}
 
 	public static CompletableFuture<QuiltMeta> create(Set<Endpoint<?>> endpoints) {
+		QuiltMeta meta = fetch(endpoints);
+
+		return CompletableFuture.allOf(meta.endpoints.values().toArray(CompletableFuture[]::new)).thenApply(_v -> meta);
+	}
+
+	/**
+	 * Starts fetching the specified endpoints without waiting for any of them to complete.
+	 *
+	 * @param endpoints the endpoints to fetch
+	 * @return the meta, whose endpoints can be waited on individually
+	 */
+	public static QuiltMeta fetch(Endpoint<?>... endpoints) {
+		return fetch(Set.of(endpoints));
+	}
+
+	public static QuiltMeta fetch(Set<Endpoint<?>> endpoints) {
 		if(endpoints.isEmpty()) {
 			throw new IllegalArgumentException("No endpoints provided");
 		}
 
-		Map<Endpoint<?>, CompletableFuture<?>> futures = new HashMap<>();
+		QuiltMeta meta = new QuiltMeta();
+
 		for (Endpoint<?> endpoint : endpoints) {
-			futures.put(endpoint, CompletableFuture.supplyAsync(() -> {
-				try {
-					return endpoint.get();
-				} catch (IOException e) {
-					throw new UncheckedIOException(e); // Handled via .exceptionally(...)
-				} catch (JsonSyntaxException e) {
-					throw new RuntimeException(e); // Handled via .exceptionally(...)
-				}
-			}));
+			meta.getEndpointAsync(endpoint);
 		}
 
-		CompletableFuture<Void> future = CompletableFuture.allOf(futures.values().toArray(CompletableFuture[]::new));
-
-		return future.thenApply(_v -> {
-			Map<Endpoint<?>, Object> resolvedEndpoints = new HashMap<>();
+		return meta;
+	}
 
-			for (Map.Entry<Endpoint<?>, CompletableFuture<?>> entry : futures.entrySet()) {
-				resolvedEndpoints.put(entry.getKey(), entry.getValue().join());
+	private static <T> CompletableFuture<T> fetchEndpoint(Endpoint<T> endpoint) {
+		return CompletableFuture.supplyAsync(Trace.queued(endpoint.getUrl().toString(), "metadata", () -> {
+			try {
+				return endpoint.get();
+			} catch (IOException e) {
+				throw new UncheckedIOException(e); // Handled via .exceptionally(...)
+			} catch (JsonSyntaxException e) {
+				throw new RuntimeException(e); // Handled via .exceptionally(...)
 			}
-
-			return new QuiltMeta(resolvedEndpoints);
-		});
+		}));
 	}
 
-	private QuiltMeta(Map<Endpoint<?>, Object> endpoints) {
-		this.endpoints = endpoints;
+	private QuiltMeta() {
+		this.endpoints = new ConcurrentHashMap<>();
 	}
 
-	public <T> T getEndpoint(Endpoint<T> endpoint) {
+	/**
+	 * Gets the future value of an endpoint.
+	 *
+	 * <p>If the endpoint was not requested when this meta was created, it is fetched now.
+	 *
+	 * @param endpoint the endpoint
+	 * @return a future which completes as soon as this endpoint has been fetched
+	 */
+	public <T> CompletableFuture<T> getEndpointAsync(Endpoint<T> endpoint) {
 		Objects.requireNonNull(endpoint, "Endpoint cannot be null");
 
 		@SuppressWarnings("unchecked")
-		T result = (T) this.endpoints.get(endpoint);
+		CompletableFuture<T> result = (CompletableFuture<T>) this.endpoints.computeIfAbsent(endpoint, QuiltMeta::fetchEndpoint);
+
+		return result;
+	}
+
+	/**
+	 * Gets the value of an endpoint, blocking until it has been fetched.
+	 *
+	 * @param endpoint the endpoint
+	 * @return the value of the endpoint
+	 */
+	public <T> T getEndpoint(Endpoint<T> endpoint) {
+		T result = this.getEndpointAsync(endpoint).join();
 
 		if (result == null) {
 			throw new IllegalArgumentException("Endpoint had no value!");
@@ -91,5 +136,4 @@ public final class QuiltMeta {
 
 		return result;
 	}
-
 }
@@ -17,14 +17,19 @@
 package org.quiltmc.installer.util.mojang;
 
 import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
+import org.quiltmc.installer.util.InstallerCache;
+import org.quiltmc.installer.util.jfr.MetadataFetchEvent;
 
 import java.io.BufferedInputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.StringWriter;
 import java.net.MalformedURLException;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.Iterator;
 import java.util.List;
@@ -34,13 +39,55 @@ public record MinecraftMeta(List<MinecraftVersion> versions, Latest latest) impl
 
     private static final URI VERSION_MANIFEST_V2_URL = URI.create("https://piston-meta.mojang.com/mc/game/version_manifest_v2.json");
 
+    private static final String CACHE_KEY = InstallerCache.keyFor("mojang", VERSION_MANIFEST_V2_URL);
+
     public static MinecraftMeta get(Gson gson) {
-        try (var reader = new InputStreamReader(new BufferedInputStream(VERSION_MANIFEST_V2_URL.toURL().openStream()))) {
-            return gson.fromJson(reader, MinecraftMeta.class);
-        } catch (MalformedURLException e) {
-            throw new RuntimeException("Game Meta URL was invalid", e);
-        } catch (IOException e) {
-            throw new RuntimeException("Unable to read game version manifest from Piston Meta", e);
+        MetadataFetchEvent event = new MetadataFetchEvent();
+        event.begin();
+        event.url = VERSION_MANIFEST_V2_URL.toString();
+        StringWriter body = new StringWriter();
+        MinecraftMeta meta;
+
+        try {
+            try (var reader = new InputStreamReader(new BufferedInputStream(VERSION_MANIFEST_V2_URL.toURL().openStream()))) {
+                reader.transferTo(body);
+            } catch (MalformedURLException e) {
+                throw new RuntimeException("Game Meta URL was invalid", e);
+            } catch (IOException e) {
+                throw new RuntimeException("Unable to read game version manifest from Piston Meta", e);
+            }
+
+            meta = gson.fromJson(body.toString(), MinecraftMeta.class);
+            event.succeeded = true;
+        } finally {
+            if (event.shouldCommit()) {
+                event.bytes = body.toString().getBytes(StandardCharsets.UTF_8).length;
+                event.commit();
+            }
+        }
+
+        InstallerCache.writeMetadata(CACHE_KEY, body.toString());
+
+        return meta;
+    }
+
+    /**
+     * Gets the version manifest from the last successful fetch, which may be out of date.
+     *
+     * @return the cached manifest, or null if the manifest has not been cached
+     */
+    @Nullable
+    public static MinecraftMeta getCached(Gson gson) {
+        String body = InstallerCache.read(CACHE_KEY);
+
+        if (body == null) {
+            return null;
+        }
+
+        try {
+            return gson.fromJson(body, MinecraftMeta.class);
+        } catch (JsonParseException e) {
+            return null;
         }
     }
 
@@ -62,7 +109,10 @@ public record MinecraftMeta(List<MinecraftVersion> versions, Latest latest) impl
         return this.versions.iterator();
     }
 
-    public record MinecraftVersion(String id, String type, URI url, Instant time, Instant releaseTime) {
+    /**
+     * @param sha1 the hash of the version json, which only the v2 manifest has
+     */
+    public record MinecraftVersion(String id, String type, URI url, Instant time, Instant releaseTime, @Nullable String sha1) {
 
         public static final String TYPE_RELEASE = "release";
         public static final String TYPE_SNAPSHOT = "snapshot";
@@ -0,0 +1,40 @@
+@echo off
+rem Starts the Quilt server. Generated by Quilt Installer.
+rem
+rem The JVM flags are chosen from the cores available to this server, and the heap grows with use.
+rem Any of them can be overridden with environment variables:
+rem   JAVA             the java executable to run the server with
+rem   JVM_HEAP         the heap size, for example 4G
+rem   JVM_GC_FLAGS     the garbage collector flags
+rem   JVM_FLAGS        replaces all of the generated flags
+rem   JVM_EXTRA_FLAGS  added after the generated flags
+rem Arguments passed to this script are passed on to the server.
+
+setlocal
+cd /d "%~dp0"
+
+if not defined JAVA set "JAVA=@JAVA@"
+if defined JVM_FLAGS goto launch
+
+set CORES=%NUMBER_OF_PROCESSORS%
+if not defined CORES set CORES=1
+
+if defined JVM_GC_FLAGS goto flags
+if %CORES% LEQ 1 (
+	set "JVM_GC_FLAGS=-XX:+UseSerialGC"
+) else (
+	set "JVM_GC_FLAGS=-XX:+UseG1GC -XX:MaxGCPauseMillis=200 -XX:+ParallelRefProcEnabled"
+)
+
+:flags
+rem The memory is shared with the rest of the system, so only take what the server uses
+if defined JVM_HEAP (
+	set "JVM_FLAGS=-Xmx%JVM_HEAP% %JVM_GC_FLAGS%"
+) else (
+	set "JVM_FLAGS=-XX:MaxRAMPercentage=75 %JVM_GC_FLAGS%"
+)
+
+if exist "@SHARED_ARCHIVE@" set "JVM_FLAGS=%JVM_FLAGS% -XX:SharedArchiveFile=@SHARED_ARCHIVE@"
+
+:launch
+"%JAVA%" %JVM_FLAGS% %JVM_EXTRA_FLAGS% -jar "@LAUNCH_JAR@" nogui %*
@@ -0,0 +1,124 @@
+#!/usr/bin/env sh
+# Starts the Quilt server. Generated by Quilt Installer.
+#
+# The JVM flags are chosen from the memory and cores available to this server, including container (cgroup) limits.
+# In a container with a memory limit the heap is fixed to most of the limit, otherwise it grows with use.
+# Any of them can be overridden with environment variables:
+#   JAVA             the java executable to run the server with
+#   JVM_HEAP         the heap size, for example 4G
+#   JVM_GC_FLAGS     the garbage collector flags
+#   JVM_FLAGS        replaces all of the generated flags
+#   JVM_EXTRA_FLAGS  added after the generated flags
+# Arguments passed to this script are passed on to the server.
+
+cd "$(dirname "$0")" || exit 1
+
+JAVA="${JAVA:-@JAVA@}"
+
+# The cgroup memory limit of this server in MiB, or nothing when it is not limited below the system memory
+detect_memory_limit() {
+	memory=$(awk '/^MemTotal:/ { print int($2 / 1024) }' /proc/meminfo 2>/dev/null)
+	limited=
+
+	# Only Linux has cgroups
+	[ -n "$memory" ] || return 0
+
+	for limit_file in /sys/fs/cgroup/memory.max /sys/fs/cgroup/memory/memory.limit_in_bytes; do
+		[ -r "$limit_file" ] || continue
+		limit=$(cat "$limit_file")
+
+		case "$limit" in
+			''|max|*[!0-9]*) ;;
+			*)
+				# Without a limit cgroup v1 reports a number far above the system memory
+				limit=$((limit / 1048576))
+				if [ "$limit" -lt "$memory" ]; then
+					memory=$limit
+					limited=1
+				fi
+				;;
+		esac
+	done
+
+	if [ -n "$limited" ]; then
+		echo "$memory"
+	fi
+}
+
+# The cores available to this server, the smallest of the online cores and any cgroup quota
+detect_cores() {
+	cores=$(nproc 2>/dev/null || getconf _NPROCESSORS_ONLN 2>/dev/null || sysctl -n hw.ncpu 2>/dev/null || echo 1)
+	quota=
+	period=
+
+	if [ -r /sys/fs/cgroup/cpu.max ]; then
+		read -r quota period < /sys/fs/cgroup/cpu.max
+	elif [ -r /sys/fs/cgroup/cpu/cpu.cfs_quota_us ] && [ -r /sys/fs/cgroup/cpu/cpu.cfs_period_us ]; then
+		quota=$(cat /sys/fs/cgroup/cpu/cpu.cfs_quota_us)
+		period=$(cat /sys/fs/cgroup/cpu/cpu.cfs_period_us)
+	fi
+
+	case "$quota" in
+		''|max|-*|*[!0-9]*) ;;
+		*)
+			quota_cores=$(((quota + period - 1) / period))
+			if [ "$quota_cores" -lt "$cores" ]; then
+				cores=$quota_cores
+			fi
+			;;
+	esac
+
+	echo "$cores"
+}
+
+if [ -z "$JVM_FLAGS" ]; then
+	memory_limit=$(detect_memory_limit)
+	cores=$(detect_cores)
+
+	if [ -z "$JVM_HEAP" ] && [ -n "$memory_limit" ]; then
+		# Leave room for metaspace, thread stacks and native memory
+		if [ "$memory_limit" -le 1024 ]; then
+			heap=$((memory_limit / 2))
+		else
+			reserve=$((memory_limit / 5))
+			[ "$reserve" -lt 512 ] && reserve=512
+			heap=$((memory_limit - reserve))
+		fi
+
+		# Stay below the limit for compressed object pointers
+		[ "$heap" -gt 31744 ] && heap=31744
+		JVM_HEAP="${heap}M"
+	fi
+
+	if [ -z "$JVM_GC_FLAGS" ]; then
+		if [ "$cores" -le 1 ]; then
+			JVM_GC_FLAGS="-XX:+UseSerialGC"
+		else
+			JVM_GC_FLAGS="-XX:+UseG1GC -XX:MaxGCPauseMillis=200 -XX:+ParallelRefProcEnabled"
+		fi
+	fi
+
+	if [ -n "$JVM_HEAP" ] && [ -n "$memory_limit" ]; then
+		# The container's memory is there for this server alone, so fix the heap and touch it all up front instead of during gameplay
+		JVM_FLAGS="-Xms$JVM_HEAP -Xmx$JVM_HEAP -XX:+AlwaysPreTouch"
+	elif [ -n "$JVM_HEAP" ]; then
+		JVM_FLAGS="-Xmx$JVM_HEAP"
+	else
+		# The memory is shared with the rest of the system, so only take what the server uses
+		JVM_FLAGS="-XX:MaxRAMPercentage=75"
+	fi
+
+	JVM_FLAGS="$JVM_FLAGS $JVM_GC_FLAGS"
+
+	# Back the heap with transparent huge pages when the kernel allows it
+	if grep -qE '\[(always|madvise)\]' /sys/kernel/mm/transparent_hugepage/enabled 2>/dev/null; then
+		JVM_FLAGS="$JVM_FLAGS -XX:+UseTransparentHugePages"
+	fi
+
+	if [ -f "@SHARED_ARCHIVE@" ]; then
+		JVM_FLAGS="$JVM_FLAGS -XX:SharedArchiveFile=@SHARED_ARCHIVE@"
+	fi
+fi
+
+# shellcheck disable=SC2086 # The flags are intentionally split
+exec "$JAVA" $JVM_FLAGS $JVM_EXTRA_FLAGS -jar "@LAUNCH_JAR@" nogui "$@"